@@ -0,0 +1,83 @@
+package com.serat.system.common.utils.ip;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Login blacklist and internal address checks: the previous split-and-regex evaluation of the config string
+ * versus the compiled prefix trie
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class IpMatcherBenchmark
+{
+    @Param({ "8.8.8.8", "192.168.1.77", "10.20.30.40" })
+    private String ip;
+
+    private String blackList;
+
+    private IpMatcher matcher;
+
+    @Setup
+    public void setup()
+    {
+        StringBuilder filter = new StringBuilder();
+        for (int i = 1; i <= 20; i++)
+        {
+            filter.append("203.0.113.").append(i).append(';');
+        }
+        filter.append("198.51.*.*;192.168.1.50-192.168.1.99;100.64.0.1-100.64.0.200");
+        blackList = filter.toString();
+        matcher = IpMatcher.compile(blackList);
+    }
+
+    @Benchmark
+    public boolean blackListLegacy()
+    {
+        for (String entry : blackList.split(";"))
+        {
+            if (IpUtils.isIP(entry) && entry.equals(ip))
+            {
+                return true;
+            }
+            else if (IpUtils.isIpWildCard(entry) && IpUtils.ipIsInWildCardNoCheck(entry, ip))
+            {
+                return true;
+            }
+            else if (IpUtils.isIPSegment(entry) && IpUtils.ipIsInNetNoCheck(entry, ip))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean blackListCompiled()
+    {
+        return matcher.matches(ip);
+    }
+
+    @Benchmark
+    public boolean internalLegacy()
+    {
+        byte[] addr = IpUtils.textToNumericFormatV4(ip);
+        int b0 = addr[0] & 0xFF;
+        int b1 = addr[1] & 0xFF;
+        return b0 == 10 || (b0 == 172 && b1 >= 16 && b1 <= 31) || (b0 == 192 && b1 == 168) || "127.0.0.1".equals(ip);
+    }
+
+    @Benchmark
+    public boolean internalCompiled()
+    {
+        return IpUtils.internalIp(ip);
+    }
+}
@@ -0,0 +1,86 @@
+package com.serat.system.framework.security.authorization;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.util.SimpleMethodInvocation;
+import com.serat.system.framework.web.service.PermissionService;
+
+/**
+ * Per-request @PreAuthorize overhead: SpEL evaluation versus the precompiled @ss decision.
+ * The permission check itself is stubbed so only the authorization plumbing is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@SuppressWarnings("deprecation")
+public class PreAuthorizeBenchmark
+{
+    private final Supplier<Authentication> authentication = () -> new TestingAuthenticationToken("admin", null);
+
+    private SimpleMethodInvocation invocation;
+
+    private PreAuthorizeAuthorizationManager spel;
+
+    private PermissionAuthorizationManager compiled;
+
+    @Setup
+    public void setup() throws Exception
+    {
+        PermissionService permissionService = new PermissionService()
+        {
+            @Override
+            public boolean hasPermi(String permission)
+            {
+                return true;
+            }
+        };
+        StaticApplicationContext context = new StaticApplicationContext();
+        context.getBeanFactory().registerSingleton("ss", permissionService);
+        context.refresh();
+        DefaultMethodSecurityExpressionHandler expressionHandler = new DefaultMethodSecurityExpressionHandler();
+        expressionHandler.setApplicationContext(context);
+
+        spel = new PreAuthorizeAuthorizationManager();
+        spel.setExpressionHandler(expressionHandler);
+        compiled = new PermissionAuthorizationManager(() -> permissionService, expressionHandler);
+
+        Controller controller = new Controller();
+        Method method = Controller.class.getMethod("list");
+        invocation = new SimpleMethodInvocation(controller, method);
+    }
+
+    @Benchmark
+    public AuthorizationDecision spel()
+    {
+        return spel.check(authentication, invocation);
+    }
+
+    @Benchmark
+    public AuthorizationDecision compiled()
+    {
+        return compiled.check(authentication, invocation);
+    }
+
+    public static class Controller
+    {
+        @PreAuthorize("@ss.hasPermi('system:user:list')")
+        public void list()
+        {
+        }
+    }
+}
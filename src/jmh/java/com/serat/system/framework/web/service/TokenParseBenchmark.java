@@ -0,0 +1,58 @@
+package com.serat.system.framework.web.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import com.serat.system.common.constant.Constants;
+import com.serat.system.common.utils.uuid.IdUtils;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+
+/**
+ * Cold (full HS512 verification) versus warm (claims cache hit) cost of resolving the login uuid from a jwt
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TokenParseBenchmark
+{
+    private static final String SECRET = "abcdefghijklmnopqrstuvwxyz";
+
+    private String token;
+
+    private TokenClaimsCache claimsCache;
+
+    @Setup
+    public void setup()
+    {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(Constants.LOGIN_USER_KEY, IdUtils.fastUUID());
+        token = Jwts.builder().setClaims(claims).signWith(SignatureAlgorithm.HS512, SECRET).compact();
+        claimsCache = new TokenClaimsCache(10000, TimeUnit.MINUTES.toMillis(30));
+        claimsCache.put(token, parse(token));
+    }
+
+    @Benchmark
+    public String cold()
+    {
+        return parse(token);
+    }
+
+    @Benchmark
+    public String warm()
+    {
+        return claimsCache.get(token);
+    }
+
+    private static String parse(String token)
+    {
+        return (String) Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token).getBody().get(Constants.LOGIN_USER_KEY);
+    }
+}
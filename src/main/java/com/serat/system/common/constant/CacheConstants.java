@@ -4,12 +4,30 @@ public class CacheConstants
 {
     public static final String LOGIN_TOKEN_KEY = "login_tokens:";
 
+    public static final String LOGIN_TOKEN_INVALIDATE_TOPIC = "login_tokens_invalidate";
+
+    public static final String LOGIN_TOKEN_INDEX_KEY = "login_tokens_index:";
+
     public static final String CAPTCHA_CODE_KEY = "captcha_codes:";
 
     public static final String SYS_CONFIG_KEY = "sys_config:";
 
+    public static final String SYS_CONFIG_VERSION_KEY = "sys_config_version";
+
+    public static final String SYS_CONFIG_TOPIC = "sys_config_changed";
+
     public static final String SYS_DICT_KEY = "sys_dict:";
 
+    public static final String SYS_DICT_TOPIC = "sys_dict_changed";
+
+    public static final String SYS_CACHE_WARM_KEY = "sys_cache_warm";
+
+    public static final String SYS_PERM_KEY = "sys_perm:";
+
+    public static final String SYS_PERM_TOPIC = "sys_perm_changed";
+
+    public static final String SYS_COUNT_TOPIC = "sys_count_changed";
+
     public static final String REPEAT_SUBMIT_KEY = "repeat_submit:";
 
     public static final String RATE_LIMIT_KEY = "rate_limit:";
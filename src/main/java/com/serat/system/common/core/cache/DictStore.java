@@ -0,0 +1,230 @@
+package com.serat.system.common.core.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import com.alibaba.fastjson2.JSONArray;
+import com.serat.system.common.constant.CacheConstants;
+import com.serat.system.common.core.domain.entity.SysDictData;
+import com.serat.system.common.core.redis.RedisCache;
+import com.serat.system.common.utils.StringUtils;
+
+/**
+ * Local copy of the dictionaries cached in redis, indexed by value and by label so DictUtils lookups
+ * are hash lookups without a redis round trip. A type is loaded from redis on first use and dropped on every node
+ * when it is written, through the sys_dict_changed channel.
+ */
+@Component
+public class DictStore implements MessageListener
+{
+    private static final String ALL = "*";
+
+    /** Marks a type that redis does not hold, so repeated lookups of it stay local too */
+    private static final Dict MISSING = new Dict(Collections.emptyList());
+
+    @Autowired
+    private RedisCache redisCache;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    private final Map<String, Dict> dicts = new ConcurrentHashMap<>();
+
+    /** Moved on by every invalidation, so a load that raced with one is not kept */
+    private final AtomicLong generation = new AtomicLong();
+
+    @PostConstruct
+    public void init()
+    {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CacheConstants.SYS_DICT_TOPIC));
+    }
+
+    /**
+     * The dictionary of the type, or null if redis holds none
+     */
+    public Dict get(String dictType)
+    {
+        if (dictType == null)
+        {
+            return null;
+        }
+        Dict dict = dicts.get(dictType);
+        if (dict == null)
+        {
+            long loadGeneration = generation.get();
+            JSONArray arrayCache = redisCache.getCacheObject(CacheConstants.SYS_DICT_KEY + dictType);
+            dict = StringUtils.isNull(arrayCache) ? MISSING : new Dict(arrayCache.toList(SysDictData.class));
+            if (generation.get() == loadGeneration)
+            {
+                dicts.put(dictType, dict);
+                // an invalidation between the check and the put may have missed this entry
+                if (generation.get() != loadGeneration)
+                {
+                    dicts.remove(dictType, dict);
+                }
+            }
+        }
+        return dict == MISSING ? null : dict;
+    }
+
+    /**
+     * Drops the type here and on every other node
+     */
+    public void invalidate(String dictType)
+    {
+        generation.incrementAndGet();
+        dicts.remove(dictType);
+        stringRedisTemplate.convertAndSend(CacheConstants.SYS_DICT_TOPIC, dictType);
+    }
+
+    public void invalidateAll()
+    {
+        generation.incrementAndGet();
+        dicts.clear();
+        stringRedisTemplate.convertAndSend(CacheConstants.SYS_DICT_TOPIC, ALL);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern)
+    {
+        String dictType = new String(message.getBody(), StandardCharsets.UTF_8);
+        generation.incrementAndGet();
+        if (ALL.equals(dictType))
+        {
+            dicts.clear();
+        }
+        else
+        {
+            dicts.remove(dictType);
+        }
+    }
+
+    /**
+     * Immutable dictionary of one type, in dictionary order
+     */
+    public static final class Dict
+    {
+        private final List<SysDictData> datas;
+
+        private final Map<String, Integer> valueIndex;
+
+        private final Map<String, Integer> labelIndex;
+
+        private final String values;
+
+        private final String labels;
+
+        private Dict(List<SysDictData> datas)
+        {
+            this.datas = Collections.unmodifiableList(new ArrayList<>(datas));
+            this.valueIndex = new HashMap<>(datas.size() * 2);
+            this.labelIndex = new HashMap<>(datas.size() * 2);
+            List<String> values = new ArrayList<>(datas.size());
+            List<String> labels = new ArrayList<>(datas.size());
+            for (int i = 0; i < datas.size(); i++)
+            {
+                SysDictData data = datas.get(i);
+                // the first entry wins, as with the linear scan
+                valueIndex.putIfAbsent(data.getDictValue(), i);
+                labelIndex.putIfAbsent(data.getDictLabel(), i);
+                values.add(data.getDictValue());
+                labels.add(data.getDictLabel());
+            }
+            this.values = String.join(",", values);
+            this.labels = String.join(",", labels);
+        }
+
+        public List<SysDictData> getDatas()
+        {
+            return datas;
+        }
+
+        public String labelOf(String value)
+        {
+            Integer index = valueIndex.get(value);
+            return index == null ? null : datas.get(index).getDictLabel();
+        }
+
+        public String valueOf(String label)
+        {
+            Integer index = labelIndex.get(label);
+            return index == null ? null : datas.get(index).getDictValue();
+        }
+
+        /**
+         * Labels of the separated values, in dictionary order and joined with the separator
+         */
+        public String labelsOf(String values, String separator)
+        {
+            return join(values, separator, valueIndex, true);
+        }
+
+        /**
+         * Values of the separated labels, in dictionary order and joined with the separator
+         */
+        public String valuesOf(String labels, String separator)
+        {
+            return join(labels, separator, labelIndex, false);
+        }
+
+        /**
+         * Values joined with ","
+         */
+        public String getValues()
+        {
+            return values;
+        }
+
+        /**
+         * Labels joined with ","
+         */
+        public String getLabels()
+        {
+            return labels;
+        }
+
+        private String join(String keys, String separator, Map<String, Integer> index, boolean toLabel)
+        {
+            String[] parts = keys.split(separator);
+            int[] found = new int[parts.length];
+            int count = 0;
+            for (String part : parts)
+            {
+                Integer i = index.get(part);
+                if (i != null)
+                {
+                    found[count++] = i;
+                }
+            }
+            Arrays.sort(found, 0, count);
+            StringBuilder joined = new StringBuilder();
+            for (int i = 0; i < count; i++)
+            {
+                if (i > 0 && found[i] == found[i - 1])
+                {
+                    continue;
+                }
+                SysDictData data = datas.get(found[i]);
+                joined.append(toLabel ? data.getDictLabel() : data.getDictValue()).append(separator);
+            }
+            return StringUtils.stripEnd(joined.toString(), separator);
+        }
+    }
+}
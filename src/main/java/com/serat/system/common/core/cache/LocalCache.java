@@ -0,0 +1,184 @@
+package com.serat.system.common.core.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded in-process cache with per-entry expiry and hit/miss counters
+ */
+public class LocalCache<K, V>
+{
+    private final ConcurrentHashMap<K, Entry<V>> map = new ConcurrentHashMap<>();
+
+    private final ReentrantLock evictLock = new ReentrantLock();
+
+    private final int maximumSize;
+
+    private final long ttlMillis;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    public LocalCache(int maximumSize, long ttlMillis)
+    {
+        this.maximumSize = Math.max(1, maximumSize);
+        this.ttlMillis = ttlMillis;
+    }
+
+    public V get(K key)
+    {
+        Entry<V> entry = map.get(key);
+        if (entry == null)
+        {
+            misses.increment();
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis()))
+        {
+            map.remove(key, entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    public void put(K key, V value)
+    {
+        put(key, value, ttlMillis);
+    }
+
+    /**
+     * Stores a value that expires after the shorter of the given ttl and the cache default
+     */
+    public void put(K key, V value, long ttlMillis)
+    {
+        if (key == null || value == null)
+        {
+            return;
+        }
+        long ttl = Math.min(ttlMillis, this.ttlMillis);
+        if (ttl <= 0)
+        {
+            map.remove(key);
+            return;
+        }
+        map.put(key, new Entry<>(value, System.currentTimeMillis() + ttl));
+        if (map.size() > maximumSize)
+        {
+            evict();
+        }
+    }
+
+    public void invalidate(K key)
+    {
+        if (key != null)
+        {
+            map.remove(key);
+        }
+    }
+
+    public void invalidateAll()
+    {
+        map.clear();
+    }
+
+    public int size()
+    {
+        return map.size();
+    }
+
+    public long getHitCount()
+    {
+        return hits.sum();
+    }
+
+    public long getMissCount()
+    {
+        return misses.sum();
+    }
+
+    public long getEvictionCount()
+    {
+        return evictions.sum();
+    }
+
+    public double getHitRate()
+    {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0D : (double) hit / total;
+    }
+
+    public Map<String, Object> stats()
+    {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size());
+        stats.put("maximumSize", maximumSize);
+        stats.put("hitCount", getHitCount());
+        stats.put("missCount", getMissCount());
+        stats.put("evictionCount", getEvictionCount());
+        stats.put("hitRate", getHitRate());
+        return stats;
+    }
+
+    /**
+     * Drops expired entries first, then arbitrary entries until the cache is back under 90% of capacity
+     */
+    private void evict()
+    {
+        if (!evictLock.tryLock())
+        {
+            return;
+        }
+        try
+        {
+            long now = System.currentTimeMillis();
+            map.entrySet().removeIf(e -> {
+                if (e.getValue().isExpired(now))
+                {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            });
+            int target = maximumSize - maximumSize / 10;
+            Iterator<K> it = map.keySet().iterator();
+            while (map.size() > target && it.hasNext())
+            {
+                it.next();
+                it.remove();
+                evictions.increment();
+            }
+        }
+        finally
+        {
+            evictLock.unlock();
+        }
+    }
+
+    private static final class Entry<V>
+    {
+        private final V value;
+
+        private final long expireAt;
+
+        private Entry(V value, long expireAt)
+        {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+
+        private boolean isExpired(long now)
+        {
+            return now >= expireAt;
+        }
+    }
+}
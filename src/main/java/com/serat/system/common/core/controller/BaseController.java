@@ -1,8 +1,10 @@
 package com.serat.system.common.core.controller;
 
 import java.beans.PropertyEditorSupport;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.web.bind.WebDataBinder;
@@ -11,8 +13,11 @@ import com.github.pagehelper.PageHelper;
 import com.github.pagehelper.PageInfo;
 import com.serat.system.common.constant.HttpStatus;
 import com.serat.system.common.core.domain.AjaxResult;
+import com.serat.system.common.core.domain.BaseEntity;
 import com.serat.system.common.core.domain.dto.LoginUser;
+import com.serat.system.common.core.page.PageCursor;
 import com.serat.system.common.core.page.PageDomain;
+import com.serat.system.common.core.page.TableCount;
 import com.serat.system.common.core.page.TableDataInfo;
 import com.serat.system.common.core.page.TableSupport;
 import com.serat.system.common.utils.DateUtils;
@@ -43,6 +48,27 @@ public class BaseController
         PageUtils.startPage();
     }
 
+    /**
+     * Offset page whose count query is skipped when the total is already known
+     */
+    protected void startPage(TableCount count)
+    {
+        PageUtils.startPage(!count.isResolved());
+    }
+
+    /**
+     * Starts a keyset page when the client asked for one; returns false to fall back to offset paging
+     */
+    protected boolean startCursorPage(BaseEntity entity, String orderBy)
+    {
+        if (!TableSupport.buildPageRequest().isCursorMode())
+        {
+            return false;
+        }
+        PageUtils.startCursorPage(entity, orderBy);
+        return true;
+    }
+
     protected void startOrderBy()
     {
         PageDomain pageDomain = TableSupport.buildPageRequest();
@@ -58,6 +84,40 @@ public class BaseController
         PageUtils.clearPage();
     }
 
+    /**
+     * Keyset page response: drops the look-ahead row and sets the cursor of the last row as next; total is not counted (-1)
+     */
+    protected <T> TableDataInfo getCursorDataTable(List<T> list, Function<T, PageCursor> key)
+    {
+        int pageSize = TableSupport.buildPageRequest().getPageSize();
+        List<T> rows = list.size() > pageSize ? new ArrayList<>(list.subList(0, pageSize)) : list;
+        TableDataInfo rspData = new TableDataInfo();
+        rspData.setCode(HttpStatus.SUCCESS);
+        rspData.setMsg("Query successful");
+        rspData.setRows(rows);
+        rspData.setTotal(-1);
+        if (list.size() > pageSize)
+        {
+            rspData.setNext(key.apply(rows.get(rows.size() - 1)).encode());
+        }
+        return rspData;
+    }
+
+    protected TableDataInfo getDataTable(List<?> list, TableCount count)
+    {
+        TableDataInfo rspData = getDataTable(list);
+        if (count.isResolved())
+        {
+            rspData.setTotal(count.getTotal());
+            rspData.setTotalExact(count.isExact());
+        }
+        else
+        {
+            count.counted(rspData.getTotal());
+        }
+        return rspData;
+    }
+
     @SuppressWarnings({ "rawtypes", "unchecked" })
     protected TableDataInfo getDataTable(List<?> list)
     {
@@ -7,7 +7,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import java.util.Collection;
 import java.util.Set;
 
-public class LoginUser implements UserDetails
+public class LoginUser implements UserDetails, Cloneable
 {
     private static final long serialVersionUID = 1L;
 
@@ -31,6 +31,8 @@ public class LoginUser implements UserDetails
 
     private Set<String> permissions;
 
+    private long[] permissionBits;
+
     private SysUser user;
 
     public LoginUser()
@@ -182,6 +184,7 @@ public class LoginUser implements UserDetails
         this.expireTime = expireTime;
     }
 
+    @JSONField(serialize = false)
     public Set<String> getPermissions()
     {
         return permissions;
@@ -190,6 +193,17 @@ public class LoginUser implements UserDetails
     public void setPermissions(Set<String> permissions)
     {
         this.permissions = permissions;
+        this.permissionBits = null;
+    }
+
+    public long[] getPermissionBits()
+    {
+        return permissionBits;
+    }
+
+    public void setPermissionBits(long[] permissionBits)
+    {
+        this.permissionBits = permissionBits;
     }
 
     public SysUser getUser()
@@ -202,6 +216,24 @@ public class LoginUser implements UserDetails
         this.user = user;
     }
 
+    /**
+     * Copy of the session and its user, so changes to one are not seen through the other.
+     * The permission set and bits are shared; they are replaced, never modified in place.
+     */
+    public LoginUser copy()
+    {
+        try
+        {
+            LoginUser copy = (LoginUser) clone();
+            copy.user = user == null ? null : user.copy();
+            return copy;
+        }
+        catch (CloneNotSupportedException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities()
     {
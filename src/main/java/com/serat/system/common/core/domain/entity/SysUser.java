@@ -13,7 +13,7 @@ import jakarta.validation.constraints.*;
 import java.util.Date;
 import java.util.List;
 
-public class SysUser extends BaseEntity{
+public class SysUser extends BaseEntity implements Cloneable{
     private static final long serialVersionUID = 1L;
 
     /** User ID */
@@ -276,6 +276,21 @@ public class SysUser extends BaseEntity{
         this.roleId = roleId;
     }
 
+    /**
+     * Copy of the fields; lists, the dept and the params map are shared
+     */
+    public SysUser copy()
+    {
+        try
+        {
+            return (SysUser) clone();
+        }
+        catch (CloneNotSupportedException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
     @Override
     public String toString() {
         return new ToStringBuilder(this,ToStringStyle.MULTI_LINE_STYLE)
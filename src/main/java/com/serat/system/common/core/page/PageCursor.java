@@ -0,0 +1,84 @@
+package com.serat.system.common.core.page;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.Date;
+import com.serat.system.common.exception.ServiceException;
+import com.serat.system.common.utils.StringUtils;
+
+/**
+ * Position of the last row of a keyset page: the sort key (a timestamp, optional) and the primary key.
+ * Mappers read it as params.cursor and add a seek predicate such as (oper_time, oper_id) &lt; (#{params.cursor.time}, #{params.cursor.id}).
+ * The time is kept to the microsecond, the precision of a database TIMESTAMP, so the sort key column has to be read
+ * as a {@link Timestamp} (SqlTimestampTypeHandler) for the seek to continue exactly after the last row.
+ */
+public class PageCursor
+{
+    private static final long MICROS_PER_SECOND = 1000000L;
+
+    private final Timestamp time;
+
+    private final Long id;
+
+    public PageCursor(Date time, Long id)
+    {
+        this.time = time == null || time instanceof Timestamp ? (Timestamp) time : new Timestamp(time.getTime());
+        this.id = id;
+    }
+
+    public PageCursor(Long id)
+    {
+        this(null, id);
+    }
+
+    public Timestamp getTime()
+    {
+        return time;
+    }
+
+    public Long getId()
+    {
+        return id;
+    }
+
+    /**
+     * Opaque token handed to clients as the "after" parameter of the next page
+     */
+    public String encode()
+    {
+        String value = (time == null ? "" : String.valueOf(toMicros(time))) + "." + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String token)
+    {
+        if (StringUtils.isEmpty(token))
+        {
+            return null;
+        }
+        try
+        {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int dot = value.indexOf('.');
+            Timestamp time = dot == 0 ? null : fromMicros(Long.parseLong(value.substring(0, dot)));
+            return new PageCursor(time, Long.parseLong(value.substring(dot + 1)));
+        }
+        catch (RuntimeException e)
+        {
+            throw new ServiceException("Invalid page cursor");
+        }
+    }
+
+    private static long toMicros(Timestamp time)
+    {
+        return Math.floorDiv(time.getTime(), 1000L) * MICROS_PER_SECOND + time.getNanos() / 1000;
+    }
+
+    private static Timestamp fromMicros(long micros)
+    {
+        Timestamp time = new Timestamp(Math.floorDiv(micros, MICROS_PER_SECOND) * 1000L);
+        time.setNanos((int) Math.floorMod(micros, MICROS_PER_SECOND) * 1000);
+        return time;
+    }
+}
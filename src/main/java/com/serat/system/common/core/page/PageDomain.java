@@ -14,6 +14,11 @@ public class PageDomain
 
     private Boolean reasonable = true;
 
+    /** Keyset mode: rows after this cursor token, without a count */
+    private String after;
+
+    private Boolean cursor = false;
+
     public String getOrderBy()
     {
         if (StringUtils.isEmpty(orderByColumn))
@@ -75,6 +80,34 @@ public class PageDomain
         }
     }
 
+    public String getAfter()
+    {
+        return after;
+    }
+
+    public void setAfter(String after)
+    {
+        this.after = after;
+    }
+
+    public Boolean getCursor()
+    {
+        return cursor;
+    }
+
+    public void setCursor(Boolean cursor)
+    {
+        this.cursor = cursor;
+    }
+
+    /**
+     * Keyset pagination was requested, either explicitly for the first page or by passing a cursor
+     */
+    public boolean isCursorMode()
+    {
+        return Boolean.TRUE.equals(cursor) || StringUtils.isNotEmpty(after);
+    }
+
     public Boolean getReasonable()
     {
         if (StringUtils.isNull(reasonable))
@@ -0,0 +1,64 @@
+package com.serat.system.common.core.page;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Total for a paged list decided before the query runs: either already known (cached exact count or planner
+ * estimate) so the count query can be skipped, or unresolved, in which case the counted total is handed back to be cached.
+ */
+public class TableCount
+{
+    private final long total;
+
+    private final boolean exact;
+
+    private final LongConsumer onCounted;
+
+    private TableCount(long total, boolean exact, LongConsumer onCounted)
+    {
+        this.total = total;
+        this.exact = exact;
+        this.onCounted = onCounted;
+    }
+
+    public static TableCount exact(long total)
+    {
+        return new TableCount(total, true, null);
+    }
+
+    public static TableCount estimated(long total)
+    {
+        return new TableCount(total, false, null);
+    }
+
+    public static TableCount unresolved(LongConsumer onCounted)
+    {
+        return new TableCount(-1, true, onCounted);
+    }
+
+    /**
+     * Whether the total is already known and the count query can be skipped
+     */
+    public boolean isResolved()
+    {
+        return onCounted == null;
+    }
+
+    public long getTotal()
+    {
+        return total;
+    }
+
+    public boolean isExact()
+    {
+        return exact;
+    }
+
+    public void counted(long total)
+    {
+        if (onCounted != null)
+        {
+            onCounted.accept(total);
+        }
+    }
+}
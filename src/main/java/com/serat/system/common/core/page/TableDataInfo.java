@@ -9,12 +9,18 @@ public class TableDataInfo implements Serializable
 
     private long total;
 
+    /** False when total is the planner's estimate rather than a count */
+    private boolean totalExact = true;
+
     private List<?> rows;
 
     private int code;
 
     private String msg;
 
+    /** Cursor for the next keyset page, null on the last page */
+    private String next;
+
     public TableDataInfo()
     {
     }
@@ -35,6 +41,16 @@ public class TableDataInfo implements Serializable
         this.total = total;
     }
 
+    public boolean isTotalExact()
+    {
+        return totalExact;
+    }
+
+    public void setTotalExact(boolean totalExact)
+    {
+        this.totalExact = totalExact;
+    }
+
     public List<?> getRows()
     {
         return rows;
@@ -64,4 +80,14 @@ public class TableDataInfo implements Serializable
     {
         this.msg = msg;
     }
+
+    public String getNext()
+    {
+        return next;
+    }
+
+    public void setNext(String next)
+    {
+        this.next = next;
+    }
 }
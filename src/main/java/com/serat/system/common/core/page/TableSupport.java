@@ -15,6 +15,10 @@ public class TableSupport
 
     public static final String REASONABLE = "reasonable";
 
+    public static final String CURSOR = "cursor";
+
+    public static final String AFTER = "after";
+
     public static PageDomain getPageDomain()
     {
         PageDomain pageDomain = new PageDomain();
@@ -23,6 +27,8 @@ public class TableSupport
         pageDomain.setOrderByColumn(ServletUtils.getParameter(ORDER_BY_COLUMN));
         pageDomain.setIsAsc(ServletUtils.getParameter(IS_ASC));
         pageDomain.setReasonable(ServletUtils.getParameterToBool(REASONABLE));
+        pageDomain.setCursor(ServletUtils.getParameterToBool(CURSOR));
+        pageDomain.setAfter(ServletUtils.getParameter(AFTER));
         return pageDomain;
     }
 
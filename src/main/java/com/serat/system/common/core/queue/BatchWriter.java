@@ -0,0 +1,277 @@
+package com.serat.system.common.core.queue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded multi-producer queue drained by a single thread that hands records to the sink in batches,
+ * flushed when a batch is full or the flush interval elapses.
+ * A full queue blocks producers for at most the offer timeout, after which the record goes to the overflow
+ * handler if one is set, or is dropped and counted.
+ */
+public class BatchWriter<T>
+{
+    private static final Logger log = LoggerFactory.getLogger(BatchWriter.class);
+
+    private final String name;
+
+    private final Consumer<List<T>> sink;
+
+    private final BlockingQueue<T> queue;
+
+    private final int capacity;
+
+    private final int batchSize;
+
+    private final long flushIntervalMillis;
+
+    private final long offerTimeoutMillis;
+
+    private final Thread worker;
+
+    private final LongAdder submitted = new LongAdder();
+
+    private final LongAdder written = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    private final LongAdder blocked = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final LongAdder batches = new LongAdder();
+
+    private final LongAdder overflowed = new LongAdder();
+
+    private volatile Predicate<List<T>> overflow;
+
+    private volatile int lastBatchSize;
+
+    private volatile boolean running = true;
+
+    private volatile long lastDropWarning;
+
+    public BatchWriter(String name, Consumer<List<T>> sink, int capacity, int batchSize, long flushIntervalMillis,
+            long offerTimeoutMillis)
+    {
+        this.name = name;
+        this.sink = sink;
+        this.capacity = Math.max(1, capacity);
+        this.queue = new ArrayBlockingQueue<>(this.capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMillis = Math.max(1, flushIntervalMillis);
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.worker = new BasicThreadFactory.Builder().namingPattern(name + "-writer-%d").daemon(true).build()
+                .newThread(this::drain);
+        this.worker.start();
+    }
+
+    /**
+     * Receives records the queue could not take, and whatever is still queued if shutdown times out;
+     * returns false if it could not keep them either
+     */
+    public void setOverflow(Predicate<List<T>> overflow)
+    {
+        this.overflow = overflow;
+    }
+
+    /**
+     * Queues a record; returns false if it was dropped because the queue stayed full.
+     * After shutdown records are written synchronously so late callers are not lost.
+     */
+    public boolean submit(T record)
+    {
+        submitted.increment();
+        if (!running)
+        {
+            List<T> single = new ArrayList<>(1);
+            single.add(record);
+            write(single);
+            return true;
+        }
+        if (queue.offer(record))
+        {
+            return true;
+        }
+        if (offerTimeoutMillis > 0)
+        {
+            blocked.increment();
+            try
+            {
+                if (queue.offer(record, offerTimeoutMillis, TimeUnit.MILLISECONDS))
+                {
+                    return true;
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (overflow(Collections.singletonList(record)))
+        {
+            return true;
+        }
+        dropped.increment();
+        long now = System.currentTimeMillis();
+        if (now - lastDropWarning >= TimeUnit.MINUTES.toMillis(1))
+        {
+            lastDropWarning = now;
+            log.warn("{} queue is full, {} records dropped so far", name, dropped.sum());
+        }
+        return false;
+    }
+
+    private void drain()
+    {
+        List<T> batch = new ArrayList<>(batchSize);
+        long deadline = System.currentTimeMillis() + flushIntervalMillis;
+        while (running)
+        {
+            try
+            {
+                T record = queue.poll(Math.max(1, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                if (record != null)
+                {
+                    batch.add(record);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+            }
+            catch (InterruptedException e)
+            {
+                running = false;
+                Thread.currentThread().interrupt();
+            }
+            long now = System.currentTimeMillis();
+            if (batch.size() >= batchSize || (now >= deadline && !batch.isEmpty()))
+            {
+                write(batch);
+            }
+            if (now >= deadline || batch.isEmpty())
+            {
+                deadline = now + flushIntervalMillis;
+            }
+        }
+        do
+        {
+            queue.drainTo(batch, batchSize - batch.size());
+            write(batch);
+        }
+        while (!queue.isEmpty());
+    }
+
+    private void write(List<T> batch)
+    {
+        if (batch.isEmpty())
+        {
+            return;
+        }
+        try
+        {
+            sink.accept(batch);
+            written.add(batch.size());
+            batches.increment();
+            lastBatchSize = batch.size();
+        }
+        catch (Exception e)
+        {
+            failed.add(batch.size());
+            log.error("{} failed to write {} records: {}", name, batch.size(), e.getMessage());
+        }
+        finally
+        {
+            batch.clear();
+        }
+    }
+
+    /**
+     * Stops accepting queued records and waits for the drain thread to flush everything already queued
+     */
+    public void shutdown(long timeoutMillis)
+    {
+        running = false;
+        try
+        {
+            worker.join(flushIntervalMillis + timeoutMillis);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive())
+        {
+            List<T> rest = new ArrayList<>();
+            queue.drainTo(rest);
+            if (!overflow(rest))
+            {
+                log.warn("{} did not finish flushing, {} records lost", name, rest.size());
+            }
+            return;
+        }
+        // records offered while the drain thread was exiting
+        List<T> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        write(rest);
+    }
+
+    private boolean overflow(List<T> records)
+    {
+        Predicate<List<T>> handler = overflow;
+        if (handler == null || records.isEmpty())
+        {
+            return false;
+        }
+        try
+        {
+            if (handler.test(records))
+            {
+                overflowed.add(records.size());
+                return true;
+            }
+            return false;
+        }
+        catch (Exception e)
+        {
+            log.error("{} overflow handler failed for {} records: {}", name, records.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Fraction of the queue currently occupied, from 0 to 1
+     */
+    public double getFillRatio()
+    {
+        return (double) queue.size() / capacity;
+    }
+
+    public Map<String, Object> stats()
+    {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queued", queue.size());
+        stats.put("capacity", capacity);
+        stats.put("submitted", submitted.sum());
+        stats.put("written", written.sum());
+        long batchCount = batches.sum();
+        stats.put("batches", batchCount);
+        stats.put("lastBatchSize", lastBatchSize);
+        stats.put("averageBatchSize", batchCount == 0 ? 0D : (double) written.sum() / batchCount);
+        stats.put("failed", failed.sum());
+        stats.put("blocked", blocked.sum());
+        stats.put("overflowed", overflowed.sum());
+        stats.put("dropped", dropped.sum());
+        return stats;
+    }
+}
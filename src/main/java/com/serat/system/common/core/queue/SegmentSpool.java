@@ -0,0 +1,550 @@
+package com.serat.system.common.core.queue;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only spool of typed records in fixed-size memory-mapped segment files.
+ * Each record is [length][crc32][type][payload]; the length is written last, so a record torn by a crash
+ * reads as the end of the segment. The replay position is kept in a separate file replaced atomically,
+ * and segments are deleted once replay has moved past them. Each segment is mapped at most once for reading and
+ * unmapped before it is deleted, as a mapped file cannot be deleted on Windows; a segment that still cannot be
+ * deleted is retried on later commits and at the next start.
+ */
+public class SegmentSpool implements Closeable
+{
+    private static final Logger log = LoggerFactory.getLogger(SegmentSpool.class);
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final String POSITION_FILE = "replay.pos";
+
+    private static final int HEADER_SIZE = 9;
+
+    /** sun.misc.Unsafe.invokeCleaner, to unmap a segment before it is deleted; null where it is not available */
+    private static final Object UNSAFE;
+
+    private static final Method INVOKE_CLEANER;
+
+    static
+    {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try
+        {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        }
+        catch (Exception e)
+        {
+            log.warn("Spool segments cannot be unmapped explicitly: {}", e.getMessage());
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private final Path dir;
+
+    private final int segmentSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private MappedByteBuffer writeBuffer;
+
+    /** Read-only mapping of the oldest unreplayed segment, when that is not the write segment */
+    private MappedByteBuffer readBuffer;
+
+    private long readBufferSegment = -1;
+
+    /** Segments replayed but not deleted yet */
+    private final TreeSet<Long> replayedSegments = new TreeSet<>();
+
+    private long writeSegment;
+
+    private long readSegment;
+
+    private int readOffset;
+
+    public SegmentSpool(Path dir, int segmentSize) throws IOException
+    {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(dir);
+        loadPosition();
+        TreeSet<Long> segments = listSegments();
+        if (segments.isEmpty())
+        {
+            writeSegment = readSegment;
+            readOffset = 0;
+            writeBuffer = map(writeSegment, true);
+        }
+        else
+        {
+            if (readSegment < segments.first())
+            {
+                readSegment = segments.first();
+                readOffset = 0;
+            }
+            writeSegment = Math.max(segments.last(), readSegment);
+            writeBuffer = map(writeSegment, true);
+            recover();
+            replayedSegments.addAll(segments.headSet(readSegment));
+            deleteReplayedSegments();
+        }
+    }
+
+    /**
+     * Appends one record, rotating to a new segment when the current one is full
+     */
+    public void append(byte type, byte[] payload) throws IOException
+    {
+        if (HEADER_SIZE + payload.length > segmentSize)
+        {
+            throw new IOException("Spool record of " + payload.length + " bytes exceeds the segment size");
+        }
+        lock.lock();
+        try
+        {
+            if (writeBuffer.remaining() < HEADER_SIZE + payload.length)
+            {
+                rotate();
+            }
+            int start = writeBuffer.position();
+            writeBuffer.position(start + 4);
+            writeBuffer.putInt(checksum(type, payload, 0, payload.length));
+            writeBuffer.put(type);
+            writeBuffer.put(payload);
+            writeBuffer.putInt(start, payload.length);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Flushes appended records to the storage device, not just to the page cache
+     */
+    public void force()
+    {
+        lock.lock();
+        try
+        {
+            writeBuffer.force();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads up to maxRecords records after the committed replay position without consuming them. A batch only holds
+     * records of one type: it ends before the first record whose type differs from the first one.
+     */
+    public Batch read(int maxRecords) throws IOException
+    {
+        lock.lock();
+        try
+        {
+            List<Record> records = new ArrayList<>();
+            long segment = readSegment;
+            int offset = readOffset;
+            ByteBuffer buffer = segmentBuffer(segment);
+            while (records.size() < maxRecords)
+            {
+                Record record = buffer == null ? null : next(buffer, offset);
+                if (record != null)
+                {
+                    if (!records.isEmpty() && record.type != records.get(0).type)
+                    {
+                        break;
+                    }
+                    offset += HEADER_SIZE + record.payload.length;
+                    record.segment = segment;
+                    record.offset = offset;
+                    records.add(record);
+                    continue;
+                }
+                if (segment >= writeSegment)
+                {
+                    break;
+                }
+                if (buffer != null && offset + HEADER_SIZE <= buffer.limit() && buffer.getInt(offset) != 0)
+                {
+                    log.warn("Spool segment {} is corrupt after offset {}, skipping the rest of it", segment, offset);
+                }
+                segment++;
+                offset = 0;
+                buffer = segmentBuffer(segment);
+            }
+            return new Batch(records, segment, offset);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks a batch as replayed and deletes the segments it has moved past
+     */
+    public void commit(Batch batch) throws IOException
+    {
+        lock.lock();
+        try
+        {
+            Path tmp = dir.resolve(POSITION_FILE + ".tmp");
+            Files.write(tmp, (batch.segment + " " + batch.offset).getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE,
+                    StandardOpenOption.SYNC);
+            Files.move(tmp, dir.resolve(POSITION_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            for (long segment = readSegment; segment < batch.segment; segment++)
+            {
+                replayedSegments.add(segment);
+            }
+            readSegment = batch.segment;
+            readOffset = batch.offset;
+            deleteReplayedSegments();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    public boolean isEmpty()
+    {
+        lock.lock();
+        try
+        {
+            return readSegment == writeSegment && readOffset >= writeBuffer.position();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Approximate number of bytes appended but not yet replayed
+     */
+    public long pendingBytes()
+    {
+        lock.lock();
+        try
+        {
+            return (writeSegment - readSegment) * segmentSize + writeBuffer.position() - readOffset;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        force();
+        lock.lock();
+        try
+        {
+            releaseReadBuffer();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Positions the writer after the last intact record of the newest segment and zeroes anything beyond it
+     */
+    private void recover()
+    {
+        int offset = 0;
+        Record record;
+        while ((record = next(writeBuffer, offset)) != null)
+        {
+            offset += HEADER_SIZE + record.payload.length;
+        }
+        if (writeSegment == readSegment && readOffset > offset)
+        {
+            readOffset = offset;
+        }
+        for (int i = offset; i < writeBuffer.limit(); i++)
+        {
+            writeBuffer.put(i, (byte) 0);
+        }
+        writeBuffer.position(offset);
+    }
+
+    private void rotate() throws IOException
+    {
+        writeBuffer.force();
+        MappedByteBuffer full = writeBuffer;
+        writeBuffer = map(writeSegment + 1, true);
+        writeSegment++;
+        unmap(full);
+    }
+
+    /**
+     * The segment's records; the read mapping is kept until replay moves to another segment. Only absolute reads
+     * are made on it, under the lock, so callers can share it.
+     */
+    private ByteBuffer segmentBuffer(long segment) throws IOException
+    {
+        if (segment == writeSegment)
+        {
+            return writeBuffer.duplicate().limit(writeBuffer.position());
+        }
+        if (segment != readBufferSegment)
+        {
+            releaseReadBuffer();
+            if (!Files.exists(segmentPath(segment)))
+            {
+                return null;
+            }
+            readBuffer = map(segment, false);
+            readBufferSegment = segment;
+        }
+        return readBuffer;
+    }
+
+    private void releaseReadBuffer()
+    {
+        if (readBuffer != null)
+        {
+            MappedByteBuffer buffer = readBuffer;
+            readBuffer = null;
+            readBufferSegment = -1;
+            unmap(buffer);
+        }
+    }
+
+    /**
+     * Deletes the replayed segments; one that cannot be deleted yet stays on the list without failing the commit
+     */
+    private void deleteReplayedSegments()
+    {
+        for (Iterator<Long> it = replayedSegments.iterator(); it.hasNext();)
+        {
+            long segment = it.next();
+            if (segment == readBufferSegment)
+            {
+                releaseReadBuffer();
+            }
+            try
+            {
+                Files.deleteIfExists(segmentPath(segment));
+                it.remove();
+            }
+            catch (IOException e)
+            {
+                log.warn("Replayed spool segment {} could not be deleted yet: {}", segment, e.getMessage());
+            }
+        }
+    }
+
+    private static void unmap(MappedByteBuffer buffer)
+    {
+        if (INVOKE_CLEANER == null)
+        {
+            return;
+        }
+        try
+        {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        }
+        catch (Exception e)
+        {
+            log.warn("Failed to unmap a spool segment: {}", e.getMessage());
+        }
+    }
+
+    private Record next(ByteBuffer buffer, int offset)
+    {
+        if (offset + HEADER_SIZE > buffer.limit())
+        {
+            return null;
+        }
+        int length = buffer.getInt(offset);
+        if (length <= 0 || length > buffer.limit() - offset - HEADER_SIZE)
+        {
+            return null;
+        }
+        int crc = buffer.getInt(offset + 4);
+        byte type = buffer.get(offset + 8);
+        byte[] payload = new byte[length];
+        buffer.get(offset + HEADER_SIZE, payload);
+        if (checksum(type, payload, 0, length) != crc)
+        {
+            return null;
+        }
+        return new Record(type, payload);
+    }
+
+    private MappedByteBuffer map(long segment, boolean write) throws IOException
+    {
+        Path path = segmentPath(segment);
+        if (write)
+        {
+            try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw"))
+            {
+                if (file.length() < segmentSize)
+                {
+                    file.setLength(segmentSize);
+                }
+                return file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            }
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private void loadPosition() throws IOException
+    {
+        Path path = dir.resolve(POSITION_FILE);
+        if (!Files.exists(path))
+        {
+            return;
+        }
+        String[] position = new String(Files.readAllBytes(path), StandardCharsets.UTF_8).trim().split(" ");
+        try
+        {
+            readSegment = Long.parseLong(position[0]);
+            readOffset = Integer.parseInt(position[1]);
+        }
+        catch (RuntimeException e)
+        {
+            log.warn("Ignoring unreadable spool position in {}", path);
+        }
+    }
+
+    private TreeSet<Long> listSegments() throws IOException
+    {
+        TreeSet<Long> segments = new TreeSet<>();
+        try (Stream<Path> files = Files.list(dir))
+        {
+            files.map(file -> file.getFileName().toString()).filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .forEach(name -> {
+                        try
+                        {
+                            segments.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+                        }
+                        catch (NumberFormatException ignored)
+                        {
+                        }
+                    });
+        }
+        return segments;
+    }
+
+    private Path segmentPath(long segment)
+    {
+        return dir.resolve(String.format("%020d%s", segment, SEGMENT_SUFFIX));
+    }
+
+    private static int checksum(byte type, byte[] payload, int offset, int length)
+    {
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(payload, offset, length);
+        return (int) crc.getValue();
+    }
+
+    public static final class Record
+    {
+        private final byte type;
+
+        private final byte[] payload;
+
+        /** Position just after the record */
+        private long segment;
+
+        private int offset;
+
+        private Record(byte type, byte[] payload)
+        {
+            this.type = type;
+            this.payload = payload;
+        }
+
+        public byte getType()
+        {
+            return type;
+        }
+
+        public byte[] getPayload()
+        {
+            return payload;
+        }
+    }
+
+    /**
+     * Records read in one pass plus the position just after them
+     */
+    public static final class Batch
+    {
+        private final List<Record> records;
+
+        private final long segment;
+
+        private final int offset;
+
+        private Batch(List<Record> records, long segment, int offset)
+        {
+            this.records = records;
+            this.segment = segment;
+            this.offset = offset;
+        }
+
+        public List<Record> getRecords()
+        {
+            return records;
+        }
+
+        public boolean isEmpty()
+        {
+            return records.isEmpty();
+        }
+
+        /**
+         * The first count records, ending just after the last of them, so a partly replayed batch can be committed
+         */
+        public Batch upTo(int count)
+        {
+            if (count >= records.size())
+            {
+                return this;
+            }
+            Record last = records.get(count - 1);
+            return new Batch(records.subList(0, count), last.segment, last.offset);
+        }
+    }
+}
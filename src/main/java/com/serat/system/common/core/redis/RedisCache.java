@@ -2,22 +2,61 @@ package com.serat.system.common.core.redis;
 
 import com.alibaba.fastjson2.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReturnType;
 import org.springframework.data.redis.core.BoundSetOperations;
+import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 
 @SuppressWarnings(value = { "unchecked", "rawtypes" })
 @Component
 public class RedisCache
 {
+    private static final int MULTI_GET_BATCH_SIZE = 500;
+
+    /** Keys asked for per SCAN call, and keys per UNLINK */
+    private static final int SCAN_BATCH_SIZE = 1000;
+
+    private static final String GENERATION_KEY = "cache_generation:";
+
+    private static final int UPDATE_ATTEMPTS = 3;
+
+    /**
+     * SET with a PX ttl of ARGV[3] milliseconds, or the key's current ttl when that is 0, only while the key still
+     * holds ARGV[1]; returns 1 when written
+     */
+    private static final byte[] COMPARE_AND_SET_SCRIPT = ("if redis.call('GET', KEYS[1]) ~= ARGV[1] then return 0 end "
+            + "local ttl = tonumber(ARGV[3]) "
+            + "if ttl <= 0 then ttl = redis.call('PTTL', KEYS[1]) end "
+            + "if ttl > 0 then redis.call('SET', KEYS[1], ARGV[2], 'PX', ttl) else redis.call('SET', KEYS[1], ARGV[2]) end "
+            + "return 1").getBytes(StandardCharsets.UTF_8);
+
     @Autowired
     public RedisTemplate redisTemplate;
 
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Value("${serat.cache.generationCheck:1000}")
+    private long generationCheck;
+
+    /** Last known generation per namespace: {generation, time it was read} */
+    private final Map<String, long[]> generations = new ConcurrentHashMap<>();
+
     public <T> void setCacheObject(final String key, final T value)
     {
         redisTemplate.opsForValue().set(key, value);
@@ -38,6 +77,99 @@ public class RedisCache
         return redisTemplate.expire(key, timeout, unit);
     }
 
+    /**
+     * Applies the update to many values and writes them back with a new ttl, in one pipelined read and one pipelined
+     * write. Each write is a compare and set in a script: a key that was changed or removed since it was read is left
+     * as it is, so a concurrent writer never loses its update. An update that returns null leaves its key alone,
+     * and a timeout of 0 keeps each key's current ttl. Returns the values that were written, by key.
+     */
+    public <T> Map<String, T> updateMultiCacheObject(final Collection<String> keys, final Class<T> clazz,
+            final UnaryOperator<T> update, final long timeout, final TimeUnit unit)
+    {
+        Map<String, T> written = new LinkedHashMap<>();
+        if (keys == null || keys.isEmpty())
+        {
+            return written;
+        }
+        final List<String> keyList = new ArrayList<>(keys);
+        List<Object> stored = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : keyList)
+            {
+                connection.stringCommands().get(key.getBytes(StandardCharsets.UTF_8));
+            }
+            return null;
+        }, RedisSerializer.byteArray());
+
+        final List<String> updatedKeys = new ArrayList<>();
+        final List<byte[][]> updates = new ArrayList<>();
+        final Map<String, T> values = new HashMap<>();
+        for (int i = 0; i < keyList.size(); i++)
+        {
+            byte[] old = (byte[]) stored.get(i);
+            if (old == null)
+            {
+                continue;
+            }
+            T value = update.apply(toValue(redisTemplate.getValueSerializer().deserialize(old), clazz));
+            if (value == null)
+            {
+                continue;
+            }
+            updatedKeys.add(keyList.get(i));
+            updates.add(new byte[][] { old, redisTemplate.getValueSerializer().serialize(value) });
+            values.put(keyList.get(i), value);
+        }
+        if (updatedKeys.isEmpty())
+        {
+            return written;
+        }
+        final byte[] ttl = String.valueOf(unit.toMillis(timeout)).getBytes(StandardCharsets.UTF_8);
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i = 0; i < updatedKeys.size(); i++)
+            {
+                connection.scriptingCommands().eval(COMPARE_AND_SET_SCRIPT, ReturnType.INTEGER, 1,
+                        updatedKeys.get(i).getBytes(StandardCharsets.UTF_8), updates.get(i)[0], updates.get(i)[1], ttl);
+            }
+            return null;
+        }, RedisSerializer.byteArray());
+        for (int i = 0; i < updatedKeys.size(); i++)
+        {
+            if (Long.valueOf(1).equals(results.get(i)))
+            {
+                written.put(updatedKeys.get(i), values.get(updatedKeys.get(i)));
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Applies the update to one value and writes it back with its current ttl, retried while the key is changed
+     * concurrently; returns the value written, or null when the key is missing or the update returned null
+     */
+    public <T> T updateCacheObject(final String key, final Class<T> clazz, final UnaryOperator<T> update)
+    {
+        for (int attempt = 0; attempt < UPDATE_ATTEMPTS; attempt++)
+        {
+            Map<String, T> written = updateMultiCacheObject(Collections.singletonList(key), clazz, update, 0,
+                    TimeUnit.MILLISECONDS);
+            if (!written.isEmpty())
+            {
+                return written.get(key);
+            }
+            T current = getCacheObject2(key, clazz);
+            if (current == null || update.apply(current) == null)
+            {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static <T> T toValue(Object obj, Class<T> clazz)
+    {
+        return obj instanceof JSONObject ? ((JSONObject) obj).to(clazz) : clazz.cast(obj);
+    }
+
     public long getExpire(final String key)
     {
         return redisTemplate.getExpire(key);
@@ -67,6 +199,60 @@ public class RedisCache
         return clazz.cast(obj);
     }
 
+    /**
+     * Reads many values with pipelined MGET batches; the result lines up with the keys and holds null for missing ones
+     */
+    public <T> List<T> getMultiCacheObject(final Collection<String> keys, Class<T> clazz)
+    {
+        List<T> values = new ArrayList<>(keys.size());
+        if (keys.isEmpty())
+        {
+            return values;
+        }
+        final List<String> keyList = new ArrayList<>(keys);
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i = 0; i < keyList.size(); i += MULTI_GET_BATCH_SIZE)
+            {
+                byte[][] chunk = keyList.subList(i, Math.min(i + MULTI_GET_BATCH_SIZE, keyList.size())).stream()
+                        .map(key -> key.getBytes(StandardCharsets.UTF_8)).toArray(byte[][]::new);
+                connection.stringCommands().mGet(chunk);
+            }
+            return null;
+        });
+        for (Object result : results)
+        {
+            for (Object obj : (List<Object>) result)
+            {
+                values.add(toValue(obj, clazz));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Writes many values with pipelined MSET batches instead of one round trip per key
+     */
+    public <T> void setMultiCacheObject(final Map<String, T> values)
+    {
+        if (values == null || values.isEmpty())
+        {
+            return;
+        }
+        final List<Map.Entry<String, T>> entries = new ArrayList<>(values.entrySet());
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i = 0; i < entries.size(); i += MULTI_GET_BATCH_SIZE)
+            {
+                Map<byte[], byte[]> chunk = new LinkedHashMap<>();
+                for (Map.Entry<String, T> entry : entries.subList(i, Math.min(i + MULTI_GET_BATCH_SIZE, entries.size())))
+                {
+                    chunk.put(entry.getKey().getBytes(StandardCharsets.UTF_8), redisTemplate.getValueSerializer().serialize(entry.getValue()));
+                }
+                connection.stringCommands().mSet(chunk);
+            }
+            return null;
+        });
+    }
+
     public <T> void setCacheObject2(final String key, T value, long timeout, TimeUnit unit) {
         redisTemplate.opsForValue().set(key, value, timeout, unit);
     }
@@ -144,8 +330,90 @@ public class RedisCache
         return redisTemplate.opsForHash().delete(key, hKey) > 0;
     }
 
+    /**
+     * Keys matching the pattern, collected with SCAN so redis is never blocked by a single KEYS call
+     */
     public Collection<String> keys(final String pattern)
     {
-        return redisTemplate.keys(pattern);
+        List<String> keys = new ArrayList<>();
+        scan(pattern, keys::addAll);
+        return keys;
+    }
+
+    /**
+     * Walks the keys matching the pattern with a SCAN cursor, handing them over in batches
+     *
+     * @return number of keys handed over
+     */
+    public long scan(final String pattern, final Consumer<List<String>> action)
+    {
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(SCAN_BATCH_SIZE).build();
+        long total = 0;
+        List<String> batch = new ArrayList<>(SCAN_BATCH_SIZE);
+        try (Cursor<String> cursor = stringRedisTemplate.scan(options))
+        {
+            while (cursor.hasNext())
+            {
+                batch.add(cursor.next());
+                if (batch.size() == SCAN_BATCH_SIZE)
+                {
+                    action.accept(batch);
+                    total += batch.size();
+                    batch = new ArrayList<>(SCAN_BATCH_SIZE);
+                }
+            }
+        }
+        if (!batch.isEmpty())
+        {
+            action.accept(batch);
+            total += batch.size();
+        }
+        return total;
+    }
+
+    /**
+     * Removes the keys matching the pattern in UNLINK batches; memory is reclaimed off the redis main thread
+     *
+     * @return number of keys removed
+     */
+    public long unlinkKeys(final String pattern)
+    {
+        long[] removed = new long[1];
+        scan(pattern, batch -> removed[0] += Optional.ofNullable(stringRedisTemplate.unlink(batch)).orElse(0L));
+        return removed[0];
+    }
+
+    /**
+     * Key of an entry in a namespace whose keys all carry a ttl. Clearing such a namespace only moves it to a new
+     * generation ({@link #clearNamespace}); keys of older generations are no longer found and expire on their own.
+     * Other nodes see a new generation within serat.cache.generationCheck ms.
+     */
+    public String namespaceKey(final String namespace, final String key)
+    {
+        long generation = generation(namespace);
+        return generation == 0 ? namespace + key : namespace + "g" + generation + ":" + key;
+    }
+
+    /**
+     * Starts a new generation of the namespace, in O(1)
+     */
+    public long clearNamespace(final String namespace)
+    {
+        long generation = stringRedisTemplate.opsForValue().increment(GENERATION_KEY + namespace);
+        generations.put(namespace, new long[] { generation, System.currentTimeMillis() });
+        return generation;
+    }
+
+    private long generation(String namespace)
+    {
+        long now = System.currentTimeMillis();
+        long[] known = generations.get(namespace);
+        if (known == null || now - known[1] >= generationCheck)
+        {
+            String value = stringRedisTemplate.opsForValue().get(GENERATION_KEY + namespace);
+            known = new long[] { value == null ? 0 : Long.parseLong(value), now };
+            generations.put(namespace, known);
+        }
+        return known[0];
     }
 }
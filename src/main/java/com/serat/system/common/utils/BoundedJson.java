@@ -0,0 +1,219 @@
+package com.serat.system.common.utils;
+
+import java.lang.reflect.Array;
+import java.nio.CharBuffer;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONFactory;
+import com.alibaba.fastjson2.writer.FieldWriter;
+import com.alibaba.fastjson2.writer.ObjectWriter;
+import com.serat.system.common.filter.PropertyPreExcludeFilter;
+
+/**
+ * JSON serialization into a size-capped buffer: collections, maps and beans are walked element by element
+ * and serialization stops as soon as the limit is reached, so a large argument or result costs no more than
+ * the part that is kept. Output is the same as JSON.toJSONString truncated to the limit, except that values
+ * nested deeper than MAX_DEPTH are written as a placeholder.
+ */
+public class BoundedJson
+{
+    private static final int MAX_DEPTH = 16;
+
+    /** Written instead of values nested deeper than MAX_DEPTH */
+    private static final String DEPTH_PLACEHOLDER = "\"...\"";
+
+    private final StringBuilder out;
+
+    private final int limit;
+
+    private final PropertyPreExcludeFilter filter;
+
+    private BoundedJson(int limit, PropertyPreExcludeFilter filter)
+    {
+        this.out = new StringBuilder(Math.min(limit, 256));
+        this.limit = limit;
+        this.filter = filter;
+    }
+
+    /**
+     * Serializes the value, keeping at most limit characters
+     */
+    public static String toJSONString(Object value, int limit, PropertyPreExcludeFilter filter)
+    {
+        BoundedJson json = new BoundedJson(limit, filter);
+        try
+        {
+            json.write(value, 0);
+        }
+        catch (LimitReached e)
+        {
+            // the rest would have been cut off anyway
+        }
+        return json.out.length() > limit ? json.out.substring(0, limit) : json.out.toString();
+    }
+
+    private void write(Object value, int depth)
+    {
+        if (value == null)
+        {
+            append("null");
+        }
+        else if (value instanceof CharSequence)
+        {
+            CharSequence s = (CharSequence) value;
+            int keep = Math.min(s.length(), limit - out.length());
+            append(JSON.toJSONString(s.subSequence(0, Math.max(0, keep)).toString()));
+        }
+        else if (depth >= MAX_DEPTH)
+        {
+            append(DEPTH_PLACEHOLDER);
+        }
+        else if (value instanceof Map)
+        {
+            writeMap((Map<?, ?>) value, depth);
+        }
+        else if (value instanceof Collection)
+        {
+            append("[");
+            boolean first = true;
+            for (Object item : (Collection<?>) value)
+            {
+                first = comma(first);
+                write(item, depth + 1);
+            }
+            append("]");
+        }
+        else if (value instanceof char[])
+        {
+            write(CharBuffer.wrap((char[]) value), depth);
+        }
+        else if (value.getClass().isArray())
+        {
+            writeArray(value, depth);
+        }
+        else
+        {
+            writeObject(value, depth);
+        }
+    }
+
+    /**
+     * Object and primitive arrays alike are written one element at a time; primitive elements are boxed
+     * and written as scalars, which keeps each step small
+     */
+    private void writeArray(Object array, int depth)
+    {
+        boolean primitive = array.getClass().getComponentType().isPrimitive();
+        append("[");
+        int length = Array.getLength(array);
+        for (int i = 0; i < length; i++)
+        {
+            comma(i == 0);
+            Object item = Array.get(array, i);
+            if (primitive)
+            {
+                append(scalar(item));
+            }
+            else
+            {
+                write(item, depth + 1);
+            }
+        }
+        append("]");
+    }
+
+    private void writeMap(Map<?, ?> map, int depth)
+    {
+        append("{");
+        boolean first = true;
+        for (Map.Entry<?, ?> entry : map.entrySet())
+        {
+            String name = String.valueOf(entry.getKey());
+            if (entry.getValue() == null || excluded(name))
+            {
+                continue;
+            }
+            first = comma(first);
+            append(JSON.toJSONString(name));
+            append(":");
+            write(entry.getValue(), depth + 1);
+        }
+        append("}");
+    }
+
+    /**
+     * Beans are walked field by field through fastjson's own field writers, so names and ignored fields
+     * match JSON.toJSONString; anything without field writers is a scalar (number, date, enum...) and serialized directly
+     */
+    private void writeObject(Object value, int depth)
+    {
+        ObjectWriter<?> writer = JSONFactory.getDefaultObjectWriterProvider().getObjectWriter(value.getClass());
+        List<FieldWriter> fields = writer.getFieldWriters();
+        if (fields == null || fields.isEmpty())
+        {
+            append(scalar(value));
+            return;
+        }
+        append("{");
+        boolean first = true;
+        for (FieldWriter field : fields)
+        {
+            if (excluded(field.fieldName))
+            {
+                continue;
+            }
+            Object fieldValue = field.getFieldValue(value);
+            if (fieldValue == null)
+            {
+                continue;
+            }
+            first = comma(first);
+            append(JSON.toJSONString(field.fieldName));
+            append(":");
+            write(fieldValue, depth + 1);
+        }
+        append("}");
+    }
+
+    private String scalar(Object value)
+    {
+        return filter == null ? JSON.toJSONString(value) : JSON.toJSONString(value, filter);
+    }
+
+    private boolean excluded(String name)
+    {
+        return filter != null && filter.getExcludes().contains(name);
+    }
+
+    private boolean comma(boolean first)
+    {
+        if (!first)
+        {
+            append(",");
+        }
+        return false;
+    }
+
+    private void append(String s)
+    {
+        out.append(s);
+        if (out.length() >= limit)
+        {
+            throw LimitReached.INSTANCE;
+        }
+    }
+
+    private static final class LimitReached extends RuntimeException
+    {
+        private static final long serialVersionUID = 1L;
+
+        private static final LimitReached INSTANCE = new LimitReached();
+
+        private LimitReached()
+        {
+            super(null, null, false, false);
+        }
+    }
+}
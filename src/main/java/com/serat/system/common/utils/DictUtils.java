@@ -1,31 +1,48 @@
 package com.serat.system.common.utils;
 
-import com.alibaba.fastjson2.JSONArray;
 import com.serat.system.common.constant.CacheConstants;
+import com.serat.system.common.core.cache.DictStore;
 import com.serat.system.common.core.domain.entity.SysDictData;
 import com.serat.system.common.core.redis.RedisCache;
 import com.serat.system.common.utils.spring.SpringUtils;
 
-import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class DictUtils
 {
     public static final String SEPARATOR = ",";
 
+    private static volatile DictStore dictStore;
+
     public static void setDictCache(String key, List<SysDictData> dictDatas)
     {
         SpringUtils.getBean(RedisCache.class).setCacheObject(getCacheKey(key), dictDatas);
+        getDictStore().invalidate(key);
     }
 
-    public static List<SysDictData> getDictCache(String key)
+    /**
+     * Writes the dictionaries of many types in batches
+     */
+    public static void setDictCaches(Map<String, List<SysDictData>> dictDatas)
     {
-        JSONArray arrayCache = SpringUtils.getBean(RedisCache.class).getCacheObject(getCacheKey(key));
-        if (StringUtils.isNotNull(arrayCache))
+        Map<String, List<SysDictData>> values = new HashMap<>(dictDatas.size() * 2);
+        for (Map.Entry<String, List<SysDictData>> entry : dictDatas.entrySet())
         {
-            return arrayCache.toList(SysDictData.class);
+            values.put(getCacheKey(entry.getKey()), entry.getValue());
         }
-        return null;
+        SpringUtils.getBean(RedisCache.class).setMultiCacheObject(values);
+        getDictStore().invalidateAll();
+    }
+
+    /**
+     * The cached dictionary of the type, read-only
+     */
+    public static List<SysDictData> getDictCache(String key)
+    {
+        DictStore.Dict dict = getDictStore().get(key);
+        return StringUtils.isNotNull(dict) ? dict.getDatas() : null;
     }
 
     public static String getDictLabel(String dictType, String dictValue)
@@ -48,117 +65,70 @@ public class DictUtils
 
     public static String getDictLabel(String dictType, String dictValue, String separator)
     {
-        StringBuilder propertyString = new StringBuilder();
-        List<SysDictData> datas = getDictCache(dictType);
-        if (StringUtils.isNull(datas))
+        DictStore.Dict dict = getDictStore().get(dictType);
+        if (StringUtils.isNull(dict))
         {
             return StringUtils.EMPTY;
         }
         if (StringUtils.containsAny(separator, dictValue))
         {
-            for (SysDictData dict : datas)
-            {
-                for (String value : dictValue.split(separator))
-                {
-                    if (value.equals(dict.getDictValue()))
-                    {
-                        propertyString.append(dict.getDictLabel()).append(separator);
-                        break;
-                    }
-                }
-            }
+            return dict.labelsOf(dictValue, separator);
         }
-        else
-        {
-            for (SysDictData dict : datas)
-            {
-                if (dictValue.equals(dict.getDictValue()))
-                {
-                    return dict.getDictLabel();
-                }
-            }
-        }
-        return StringUtils.stripEnd(propertyString.toString(), separator);
+        return StringUtils.nvl(dict.labelOf(dictValue), StringUtils.EMPTY);
     }
 
     public static String getDictValue(String dictType, String dictLabel, String separator)
     {
-        StringBuilder propertyString = new StringBuilder();
-        List<SysDictData> datas = getDictCache(dictType);
-        if (StringUtils.isNull(datas))
+        DictStore.Dict dict = getDictStore().get(dictType);
+        if (StringUtils.isNull(dict))
         {
             return StringUtils.EMPTY;
         }
         if (StringUtils.containsAny(separator, dictLabel))
         {
-            for (SysDictData dict : datas)
-            {
-                for (String label : dictLabel.split(separator))
-                {
-                    if (label.equals(dict.getDictLabel()))
-                    {
-                        propertyString.append(dict.getDictValue()).append(separator);
-                        break;
-                    }
-                }
-            }
-        }
-        else
-        {
-            for (SysDictData dict : datas)
-            {
-                if (dictLabel.equals(dict.getDictLabel()))
-                {
-                    return dict.getDictValue();
-                }
-            }
+            return dict.valuesOf(dictLabel, separator);
         }
-        return StringUtils.stripEnd(propertyString.toString(), separator);
+        return StringUtils.nvl(dict.valueOf(dictLabel), StringUtils.EMPTY);
     }
 
     public static String getDictValues(String dictType)
     {
-        StringBuilder propertyString = new StringBuilder();
-        List<SysDictData> datas = getDictCache(dictType);
-        if (StringUtils.isNull(datas))
-        {
-            return StringUtils.EMPTY;
-        }
-        for (SysDictData dict : datas)
-        {
-            propertyString.append(dict.getDictValue()).append(SEPARATOR);
-        }
-        return StringUtils.stripEnd(propertyString.toString(), SEPARATOR);
+        DictStore.Dict dict = getDictStore().get(dictType);
+        return StringUtils.isNull(dict) ? StringUtils.EMPTY : dict.getValues();
     }
 
     public static String getDictLabels(String dictType)
     {
-        StringBuilder propertyString = new StringBuilder();
-        List<SysDictData> datas = getDictCache(dictType);
-        if (StringUtils.isNull(datas))
-        {
-            return StringUtils.EMPTY;
-        }
-        for (SysDictData dict : datas)
-        {
-            propertyString.append(dict.getDictLabel()).append(SEPARATOR);
-        }
-        return StringUtils.stripEnd(propertyString.toString(), SEPARATOR);
+        DictStore.Dict dict = getDictStore().get(dictType);
+        return StringUtils.isNull(dict) ? StringUtils.EMPTY : dict.getLabels();
     }
 
     public static void removeDictCache(String key)
     {
         SpringUtils.getBean(RedisCache.class).deleteObject(getCacheKey(key));
+        getDictStore().invalidate(key);
     }
 
     public static void clearDictCache()
     {
-        Collection<String> keys = SpringUtils.getBean(RedisCache.class).keys(CacheConstants.SYS_DICT_KEY + "*");
-        SpringUtils.getBean(RedisCache.class).deleteObject(keys);
+        SpringUtils.getBean(RedisCache.class).unlinkKeys(CacheConstants.SYS_DICT_KEY + "*");
+        SpringUtils.getBean(RedisCache.class).deleteObject(CacheConstants.SYS_CACHE_WARM_KEY);
+        getDictStore().invalidateAll();
     }
 
     public static String getCacheKey(String configKey)
     {
         return CacheConstants.SYS_DICT_KEY + configKey;
     }
+
+    private static DictStore getDictStore()
+    {
+        DictStore store = dictStore;
+        if (store == null)
+        {
+            store = SpringUtils.getBean(DictStore.class);
+            dictStore = store;
+        }
+        return store;
+    }
 }
@@ -1,6 +1,8 @@
 package com.serat.system.common.utils;
 
 import com.github.pagehelper.PageHelper;
+import com.serat.system.common.core.domain.BaseEntity;
+import com.serat.system.common.core.page.PageCursor;
 import com.serat.system.common.core.page.PageDomain;
 import com.serat.system.common.core.page.TableSupport;
 import com.serat.system.common.utils.sql.SqlUtil;
@@ -8,13 +10,36 @@ import com.serat.system.common.utils.sql.SqlUtil;
 public class PageUtils extends PageHelper
 {
     public static void startPage()
+    {
+        startPage(true);
+    }
+
+    /**
+     * Offset page; without a count query, reasonable paging is off because it needs the total
+     */
+    public static void startPage(boolean count)
     {
         PageDomain pageDomain = TableSupport.buildPageRequest();
         Integer pageNum = pageDomain.getPageNum();
         Integer pageSize = pageDomain.getPageSize();
         String orderBy = SqlUtil.escapeOrderBySql(pageDomain.getOrderBy());
-        Boolean reasonable = pageDomain.getReasonable();
-        PageHelper.startPage(pageNum, pageSize, orderBy).setReasonable(reasonable);
+        Boolean reasonable = count && pageDomain.getReasonable();
+        PageHelper.startPage(pageNum, pageSize, orderBy).setReasonable(reasonable).setCount(count);
+    }
+
+    /**
+     * Keyset page: no count query and no offset, one extra row is fetched to tell whether another page exists.
+     * The decoded cursor is passed to the mapper as params.cursor; orderBy may be null when the statement already orders by the key.
+     */
+    public static void startCursorPage(BaseEntity entity, String orderBy)
+    {
+        PageDomain pageDomain = TableSupport.buildPageRequest();
+        PageCursor cursor = PageCursor.decode(pageDomain.getAfter());
+        if (cursor != null)
+        {
+            entity.getParams().put("cursor", cursor);
+        }
+        PageHelper.startPage(1, pageDomain.getPageSize() + 1, false).setOrderBy(orderBy);
     }
 
     public static void clearPage()
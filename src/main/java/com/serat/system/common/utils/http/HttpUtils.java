@@ -29,6 +29,14 @@ public class HttpUtils
     }
 
     public static String sendGet(String url, String param, String contentType)
+    {
+        return sendGet(url, param, contentType, 0);
+    }
+
+    /**
+     * @param timeoutMillis connect and read timeout each, 0 for none
+     */
+    public static String sendGet(String url, String param, String contentType, int timeoutMillis)
     {
         StringBuilder result = new StringBuilder();
         BufferedReader in = null;
@@ -38,6 +46,8 @@ public class HttpUtils
             log.info("sendGet - {}", urlNameString);
             URL realUrl = new URL(urlNameString);
             URLConnection connection = realUrl.openConnection();
+            connection.setConnectTimeout(timeoutMillis);
+            connection.setReadTimeout(timeoutMillis);
             connection.setRequestProperty("accept", "*/*");
             connection.setRequestProperty("connection", "Keep-Alive");
             connection.setRequestProperty("user-agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64)");
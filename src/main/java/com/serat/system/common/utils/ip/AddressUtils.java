@@ -17,31 +17,74 @@ public class AddressUtils
 
     public static final String UNKNOWN = "XX XX";
 
+    /** Offline range database, when one is installed; replaced as a whole on reload */
+    private static volatile IpRegionDatabase regionDatabase;
+
+    public static void setRegionDatabase(IpRegionDatabase database)
+    {
+        regionDatabase = database;
+    }
+
     public static String getRealAddressByIP(String ip)
     {
+        String address = getLocalAddress(ip);
+        if (address != null)
+        {
+            return address;
+        }
+        return StringUtils.nvl(getRemoteAddress(ip, 0), UNKNOWN);
+    }
+
+    /**
+     * Location answered without a network call, or null when only the remote service can tell
+     */
+    public static String getLocalAddress(String ip)
+    {
+        IpRegionDatabase database = SeratSystemConfig.isAddressEnabled() ? regionDatabase : null;
+        // IpUtils.internalIp only understands IPv4, so IPv6 addresses go to the database directly
+        if (database != null && ip != null && ip.indexOf(':') >= 0)
+        {
+            return StringUtils.nvl(database.lookup(ip), UNKNOWN);
+        }
         if (IpUtils.internalIp(ip))
         {
             return "Private Network IP";
         }
-        if (SeratSystemConfig.isAddressEnabled())
+        if (database != null)
         {
-            try
-            {
-                String rspStr = HttpUtils.sendGet(IP_URL, "ip=" + ip + "&json=true", Constants.GBK);
-                if (StringUtils.isEmpty(rspStr))
-                {
-                    log.error("Error occurred while retrieving the geographic location {}", ip);                    return UNKNOWN;
-                }
-                JSONObject obj = JSON.parseObject(rspStr);
-                String region = obj.getString("pro");
-                String city = obj.getString("city");
-                return String.format("%s %s", region, city);
-            }
-            catch (Exception e)
+            return StringUtils.nvl(database.lookup(ip), UNKNOWN);
+        }
+        if (!SeratSystemConfig.isAddressEnabled())
+        {
+            return UNKNOWN;
+        }
+        return null;
+    }
+
+    /**
+     * Blocking lookup at the remote service; null when it fails
+     *
+     * @param timeoutMillis connect and read timeout each, 0 for none
+     */
+    public static String getRemoteAddress(String ip, int timeoutMillis)
+    {
+        try
+        {
+            String rspStr = HttpUtils.sendGet(IP_URL, "ip=" + ip + "&json=true", Constants.GBK, timeoutMillis);
+            if (StringUtils.isEmpty(rspStr))
             {
                 log.error("Error occurred while retrieving the geographic location {}", ip);
+                return null;
             }
+            JSONObject obj = JSON.parseObject(rspStr);
+            String region = obj.getString("pro");
+            String city = obj.getString("city");
+            return String.format("%s %s", region, city);
+        }
+        catch (Exception e)
+        {
+            log.error("Error occurred while retrieving the geographic location {}", ip);
         }
-        return UNKNOWN;
+        return null;
     }
 }
@@ -0,0 +1,309 @@
+package com.serat.system.common.utils.ip;
+
+import java.util.Arrays;
+import com.serat.system.common.utils.StringUtils;
+
+/**
+ * Compiled set of IP addresses, matched in at most 32 (IPv4) or 128 (IPv6) steps.
+ * <p>
+ * Entries are separated by ";" and may be single addresses, CIDR blocks (10.0.0.0/8, fd00::/8),
+ * IPv4 wildcards (192.168.*.*) or IPv4 ranges (10.0.0.1-10.0.0.99); unrecognized entries are ignored.
+ * Every entry is turned into CIDR prefixes and stored in a binary trie; a node whose whole subtree is covered
+ * ends the walk early. Matching a parsed address only reads the node array.
+ */
+public final class IpMatcher
+{
+    /** Child marker: every address below this point matches */
+    private static final int COVERED = -1;
+
+    private static final int V4_ROOT = 0;
+
+    private static final int V6_ROOT = 1;
+
+    private final String source;
+
+    /** Two child slots per node: 0 means no child, COVERED means a matching prefix ends here */
+    private int[] nodes = new int[64];
+
+    private int nodeCount = 2;
+
+    private boolean allV4;
+
+    private boolean allV6;
+
+    private IpMatcher(String source)
+    {
+        this.source = source;
+    }
+
+    public static IpMatcher compile(String filter)
+    {
+        IpMatcher matcher = new IpMatcher(filter);
+        if (StringUtils.isNotEmpty(filter))
+        {
+            for (String entry : filter.split(";"))
+            {
+                matcher.addEntry(entry.trim());
+            }
+        }
+        matcher.nodes = Arrays.copyOf(matcher.nodes, matcher.nodeCount * 2);
+        return matcher;
+    }
+
+    /**
+     * The filter text this matcher was compiled from
+     */
+    public String getSource()
+    {
+        return source;
+    }
+
+    public boolean matches(String ip)
+    {
+        if (StringUtils.isEmpty(ip))
+        {
+            return false;
+        }
+        if (ip.indexOf(':') >= 0)
+        {
+            long[] address = new long[2];
+            return IpText.parseIpv6(ip, address) && matchesIpv6(address[0], address[1]);
+        }
+        long address = IpText.parseIpv4(ip);
+        return address >= 0 && matchesIpv4((int) address);
+    }
+
+    public boolean matchesIpv4(int address)
+    {
+        if (allV4)
+        {
+            return true;
+        }
+        int node = V4_ROOT;
+        for (int bit = 31; bit >= 0; bit--)
+        {
+            int child = nodes[node * 2 + ((address >>> bit) & 1)];
+            if (child == COVERED)
+            {
+                return true;
+            }
+            if (child == 0)
+            {
+                return false;
+            }
+            node = child;
+        }
+        return false;
+    }
+
+    public boolean matchesIpv6(long high, long low)
+    {
+        // IPv4-mapped addresses (::ffff:a.b.c.d) match the IPv4 entries
+        if (high == 0 && (low >>> 32) == 0xFFFFL)
+        {
+            return matchesIpv4((int) low);
+        }
+        if (allV6)
+        {
+            return true;
+        }
+        int node = V6_ROOT;
+        for (int bit = 0; bit < 128; bit++)
+        {
+            long word = bit < 64 ? high : low;
+            int child = nodes[node * 2 + (int) ((word >>> (63 - (bit & 63))) & 1)];
+            if (child == COVERED)
+            {
+                return true;
+            }
+            if (child == 0)
+            {
+                return false;
+            }
+            node = child;
+        }
+        return false;
+    }
+
+    private void addEntry(String entry)
+    {
+        if (entry.isEmpty())
+        {
+            return;
+        }
+        int slash = entry.indexOf('/');
+        int dash = entry.indexOf('-');
+        if (slash > 0)
+        {
+            addCidr(entry.substring(0, slash), entry.substring(slash + 1));
+        }
+        else if (dash > 0)
+        {
+            long start = IpText.parseIpv4(entry.substring(0, dash).trim());
+            long end = IpText.parseIpv4(entry.substring(dash + 1).trim());
+            if (start >= 0 && end >= 0)
+            {
+                addIpv4Range(Math.min(start, end), Math.max(start, end));
+            }
+        }
+        else if (entry.indexOf('*') >= 0)
+        {
+            addWildcard(entry);
+        }
+        else if (entry.indexOf(':') >= 0)
+        {
+            long[] address = new long[2];
+            if (IpText.parseIpv6(entry, address))
+            {
+                addIpv6(address[0], address[1], 128);
+            }
+        }
+        else
+        {
+            long address = IpText.parseIpv4(entry);
+            if (address >= 0)
+            {
+                addIpv4(address, 32);
+            }
+        }
+    }
+
+    private void addCidr(String address, String prefix)
+    {
+        int length;
+        try
+        {
+            length = Integer.parseInt(prefix.trim());
+        }
+        catch (NumberFormatException e)
+        {
+            return;
+        }
+        if (address.indexOf(':') >= 0)
+        {
+            long[] parsed = new long[2];
+            if (IpText.parseIpv6(address.trim(), parsed) && length >= 0 && length <= 128)
+            {
+                addIpv6(parsed[0], parsed[1], length);
+            }
+        }
+        else
+        {
+            long parsed = IpText.parseIpv4(address.trim());
+            if (parsed >= 0 && length >= 0 && length <= 32)
+            {
+                addIpv4(parsed, length);
+            }
+        }
+    }
+
+    /**
+     * Leading literal octets followed only by "*" octets, e.g. 10.*.*.* or 192.168.1.*
+     */
+    private void addWildcard(String entry)
+    {
+        String[] octets = entry.split("\\.", -1);
+        if (octets.length != 4)
+        {
+            return;
+        }
+        long address = 0;
+        int length = 0;
+        boolean wildcard = false;
+        for (String octet : octets)
+        {
+            if ("*".equals(octet))
+            {
+                wildcard = true;
+                address <<= 8;
+                continue;
+            }
+            if (wildcard || !StringUtils.isNumeric(octet) || octet.isEmpty() || octet.length() > 3)
+            {
+                return;
+            }
+            int value = Integer.parseInt(octet);
+            if (value > 255)
+            {
+                return;
+            }
+            address = (address << 8) | value;
+            length += 8;
+        }
+        addIpv4(address, length);
+    }
+
+    /**
+     * Splits an inclusive range into the largest aligned CIDR blocks that cover it exactly
+     */
+    private void addIpv4Range(long start, long end)
+    {
+        while (start <= end)
+        {
+            int size = start == 0 ? 32 : Math.min(32, Long.numberOfTrailingZeros(start));
+            while (size > 0 && start + (1L << size) - 1 > end)
+            {
+                size--;
+            }
+            addIpv4(start, 32 - size);
+            start += 1L << size;
+        }
+    }
+
+    private void addIpv4(long address, int length)
+    {
+        if (length == 0)
+        {
+            allV4 = true;
+            return;
+        }
+        insert(V4_ROOT, address << 32, 0, length);
+    }
+
+    private void addIpv6(long high, long low, int length)
+    {
+        if (length == 0)
+        {
+            allV6 = true;
+            return;
+        }
+        insert(V6_ROOT, high, low, length);
+    }
+
+    private void insert(int root, long high, long low, int length)
+    {
+        int node = root;
+        for (int bit = 0; bit < length; bit++)
+        {
+            long word = bit < 64 ? high : low;
+            int slot = node * 2 + (int) ((word >>> (63 - (bit & 63))) & 1);
+            if (nodes[slot] == COVERED)
+            {
+                // a shorter prefix already covers this one
+                return;
+            }
+            if (bit == length - 1)
+            {
+                // anything below is covered now; the abandoned subtree is unreachable
+                nodes[slot] = COVERED;
+                return;
+            }
+            if (nodes[slot] == 0)
+            {
+                // newNode may replace the array, so it has to run before the store
+                int child = newNode();
+                nodes[slot] = child;
+            }
+            node = nodes[slot];
+        }
+    }
+
+    private int newNode()
+    {
+        if ((nodeCount + 1) * 2 > nodes.length)
+        {
+            nodes = Arrays.copyOf(nodes, nodes.length * 2);
+        }
+        return nodeCount++;
+    }
+}
@@ -0,0 +1,196 @@
+package com.serat.system.common.utils.ip;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only IP range database, memory-mapped and searched by binary search.
+ * <p>
+ * File layout (big-endian): a 20 byte header (magic "SRIP", version, IPv4 range count, IPv6 range count, region count),
+ * the IPv4 ranges sorted by start (start, end, region index: 12 bytes each), the IPv6 ranges sorted by start
+ * (start and end as two longs each, region index: 36 bytes each), then the region names (unsigned short length and UTF-8 bytes).
+ * Ranges are inclusive and must not overlap. Region names are decoded once on load, so a lookup only reads the mapping;
+ * apart from parsing an IPv6 literal it allocates nothing. Files are produced by {@link IpRegionDatabaseWriter}.
+ */
+public class IpRegionDatabase
+{
+    public static final int MAGIC = 0x53524950;
+
+    public static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 20;
+
+    static final int V4_RECORD_SIZE = 12;
+
+    static final int V6_RECORD_SIZE = 36;
+
+    private final ByteBuffer buffer;
+
+    private final int v4Count;
+
+    private final int v6Count;
+
+    private final int v6Offset;
+
+    private final String[] regions;
+
+    private IpRegionDatabase(ByteBuffer buffer, int v4Count, int v6Count, String[] regions)
+    {
+        this.buffer = buffer;
+        this.v4Count = v4Count;
+        this.v6Count = v6Count;
+        this.v6Offset = HEADER_SIZE + v4Count * V4_RECORD_SIZE;
+        this.regions = regions;
+    }
+
+    /**
+     * Maps the file; the mapping stays valid after the file is replaced or deleted, so a new version
+     * should be written next to it and renamed over it
+     */
+    public static IpRegionDatabase open(Path path) throws IOException
+    {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+        {
+            throw new IOException("Not an IP region database: " + path);
+        }
+        if (buffer.getInt(4) != VERSION)
+        {
+            throw new IOException("Unsupported IP region database version " + buffer.getInt(4) + ": " + path);
+        }
+        int v4Count = buffer.getInt(8);
+        int v6Count = buffer.getInt(12);
+        int regionCount = buffer.getInt(16);
+        long regionOffset = HEADER_SIZE + (long) v4Count * V4_RECORD_SIZE + (long) v6Count * V6_RECORD_SIZE;
+        if (v4Count < 0 || v6Count < 0 || regionCount < 0 || regionOffset > buffer.capacity())
+        {
+            throw new IOException("Truncated IP region database: " + path);
+        }
+        String[] regions = new String[regionCount];
+        int offset = (int) regionOffset;
+        for (int i = 0; i < regionCount; i++)
+        {
+            if (offset + 2 > buffer.capacity())
+            {
+                throw new IOException("Truncated IP region database: " + path);
+            }
+            int length = buffer.getShort(offset) & 0xFFFF;
+            if (offset + 2 + length > buffer.capacity())
+            {
+                throw new IOException("Truncated IP region database: " + path);
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(offset + 2, bytes);
+            regions[i] = new String(bytes, StandardCharsets.UTF_8);
+            offset += 2 + length;
+        }
+        return new IpRegionDatabase(buffer, v4Count, v6Count, regions);
+    }
+
+    /**
+     * Region of an IPv4 or IPv6 literal, or null when the address is not covered or not a literal
+     */
+    public String lookup(String ip)
+    {
+        if (ip == null)
+        {
+            return null;
+        }
+        if (ip.indexOf(':') >= 0)
+        {
+            long[] address = new long[2];
+            return IpText.parseIpv6(ip, address) ? lookupIpv6(address[0], address[1]) : null;
+        }
+        long address = IpText.parseIpv4(ip);
+        return address < 0 ? null : lookupIpv4((int) address);
+    }
+
+    public String lookupIpv4(int address)
+    {
+        int low = 0;
+        int high = v4Count - 1;
+        while (low <= high)
+        {
+            int mid = (low + high) >>> 1;
+            int record = HEADER_SIZE + mid * V4_RECORD_SIZE;
+            if (Integer.compareUnsigned(buffer.getInt(record), address) <= 0)
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid - 1;
+            }
+        }
+        // high is now the last range starting at or before the address
+        if (high < 0)
+        {
+            return null;
+        }
+        int record = HEADER_SIZE + high * V4_RECORD_SIZE;
+        return Integer.compareUnsigned(address, buffer.getInt(record + 4)) <= 0 ? region(buffer.getInt(record + 8)) : null;
+    }
+
+    public String lookupIpv6(long addressHigh, long addressLow)
+    {
+        // IPv4-mapped addresses (::ffff:a.b.c.d) are answered from the IPv4 ranges
+        if (addressHigh == 0 && (addressLow >>> 32) == 0xFFFFL)
+        {
+            return lookupIpv4((int) addressLow);
+        }
+        int low = 0;
+        int high = v6Count - 1;
+        while (low <= high)
+        {
+            int mid = (low + high) >>> 1;
+            int record = v6Offset + mid * V6_RECORD_SIZE;
+            if (compare(buffer.getLong(record), buffer.getLong(record + 8), addressHigh, addressLow) <= 0)
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid - 1;
+            }
+        }
+        if (high < 0)
+        {
+            return null;
+        }
+        int record = v6Offset + high * V6_RECORD_SIZE;
+        if (compare(addressHigh, addressLow, buffer.getLong(record + 16), buffer.getLong(record + 24)) <= 0)
+        {
+            return region(buffer.getInt(record + 32));
+        }
+        return null;
+    }
+
+    public int getIpv4Count()
+    {
+        return v4Count;
+    }
+
+    public int getIpv6Count()
+    {
+        return v6Count;
+    }
+
+    private String region(int index)
+    {
+        return index >= 0 && index < regions.length ? regions[index] : null;
+    }
+
+    private static int compare(long aHigh, long aLow, long bHigh, long bLow)
+    {
+        int result = Long.compareUnsigned(aHigh, bHigh);
+        return result != 0 ? result : Long.compareUnsigned(aLow, bLow);
+    }
+}
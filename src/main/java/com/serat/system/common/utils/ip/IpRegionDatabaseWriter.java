@@ -0,0 +1,167 @@
+package com.serat.system.common.utils.ip;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds an {@link IpRegionDatabase} file from a CSV of "start,end,region" lines (inclusive IPv4 or IPv6 ranges).
+ * <p>
+ * Usage: java -cp app.jar com.serat.system.common.utils.ip.IpRegionDatabaseWriter ranges.csv ip-region.db
+ */
+public class IpRegionDatabaseWriter
+{
+    private static final BigInteger LONG_MASK = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+
+    private final List<Range> v4 = new ArrayList<>();
+
+    private final List<Range> v6 = new ArrayList<>();
+
+    private final Map<String, Integer> regions = new LinkedHashMap<>();
+
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length != 2)
+        {
+            System.err.println("Usage: IpRegionDatabaseWriter <ranges.csv> <output.db>");
+            System.exit(2);
+        }
+        IpRegionDatabaseWriter writer = new IpRegionDatabaseWriter();
+        int line = 0;
+        for (String row : Files.readAllLines(Paths.get(args[0]), StandardCharsets.UTF_8))
+        {
+            line++;
+            if (row.isBlank() || row.startsWith("#"))
+            {
+                continue;
+            }
+            String[] columns = row.split(",", 3);
+            if (columns.length != 3)
+            {
+                throw new IllegalArgumentException("Line " + line + ": expected start,end,region");
+            }
+            writer.add(columns[0].trim(), columns[1].trim(), columns[2].trim());
+        }
+        writer.write(Paths.get(args[1]));
+        System.out.println("Wrote " + writer.v4.size() + " IPv4 and " + writer.v6.size() + " IPv6 ranges, "
+                + writer.regions.size() + " regions to " + args[1]);
+    }
+
+    /**
+     * Adds an inclusive range; both ends must be literals of the same family
+     */
+    public IpRegionDatabaseWriter add(String start, String end, String region) throws IOException
+    {
+        byte[] from = InetAddress.getByName(start).getAddress();
+        byte[] to = InetAddress.getByName(end).getAddress();
+        if (from.length != to.length)
+        {
+            throw new IllegalArgumentException("Mixed address families: " + start + " - " + end);
+        }
+        BigInteger first = new BigInteger(1, from);
+        BigInteger last = new BigInteger(1, to);
+        if (first.compareTo(last) > 0)
+        {
+            throw new IllegalArgumentException("Range start after end: " + start + " - " + end);
+        }
+        if (region.getBytes(StandardCharsets.UTF_8).length > 0xFFFF)
+        {
+            throw new IllegalArgumentException("Region name too long: " + region);
+        }
+        Integer index = regions.computeIfAbsent(region, r -> regions.size());
+        (from.length == 4 ? v4 : v6).add(new Range(first, last, index));
+        return this;
+    }
+
+    /**
+     * Writes to a temporary file next to the target and renames it over the target,
+     * so a running application never maps a half-written file
+     */
+    public void write(Path path) throws IOException
+    {
+        checkOverlaps(v4);
+        checkOverlaps(v6);
+        Path absolute = path.toAbsolutePath();
+        Files.createDirectories(absolute.getParent());
+        Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try
+        {
+            try (OutputStream file = Files.newOutputStream(temp);
+                    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file)))
+            {
+                out.writeInt(IpRegionDatabase.MAGIC);
+                out.writeInt(IpRegionDatabase.VERSION);
+                out.writeInt(v4.size());
+                out.writeInt(v6.size());
+                out.writeInt(regions.size());
+                for (Range range : v4)
+                {
+                    out.writeInt(range.start.intValue());
+                    out.writeInt(range.end.intValue());
+                    out.writeInt(range.region);
+                }
+                for (Range range : v6)
+                {
+                    out.writeLong(range.start.shiftRight(64).longValue());
+                    out.writeLong(range.start.and(LONG_MASK).longValue());
+                    out.writeLong(range.end.shiftRight(64).longValue());
+                    out.writeLong(range.end.and(LONG_MASK).longValue());
+                    out.writeInt(range.region);
+                }
+                for (String region : regions.keySet())
+                {
+                    byte[] bytes = region.getBytes(StandardCharsets.UTF_8);
+                    out.writeShort(bytes.length);
+                    out.write(bytes);
+                }
+            }
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally
+        {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void checkOverlaps(List<Range> ranges)
+    {
+        ranges.sort(Comparator.comparing(range -> range.start));
+        for (int i = 1; i < ranges.size(); i++)
+        {
+            if (ranges.get(i).start.compareTo(ranges.get(i - 1).end) <= 0)
+            {
+                throw new IllegalArgumentException("Overlapping ranges starting at " + ranges.get(i - 1).start
+                        + " and " + ranges.get(i).start);
+            }
+        }
+    }
+
+    private static final class Range
+    {
+        private final BigInteger start;
+
+        private final BigInteger end;
+
+        private final int region;
+
+        private Range(BigInteger start, BigInteger end, int region)
+        {
+            this.start = start;
+            this.end = end;
+            this.region = region;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.serat.system.common.utils.ip;
+
+/**
+ * Allocation-free parsing of IPv4 and IPv6 literals into numbers, shared by the region database and the IP matcher
+ */
+final class IpText
+{
+    private IpText()
+    {
+    }
+
+    /**
+     * Parses the text form, including "::" compression, an embedded IPv4 tail and a zone suffix,
+     * into the high and low 64 bits of the address
+     *
+     * @return false when the text is not an IPv6 literal
+     */
+    static boolean parseIpv6(String ip, long[] address)
+    {
+        int end = ip.indexOf('%');
+        if (end < 0)
+        {
+            end = ip.length();
+        }
+        // groups before "::" accumulate in (high, low); groups after it in (tailHigh, tailLow)
+        long high = 0;
+        long low = 0;
+        long tailHigh = 0;
+        long tailLow = 0;
+        int groups = 0;
+        int tailGroups = 0;
+        boolean compressed = false;
+        int i = 0;
+        if (ip.startsWith("::"))
+        {
+            compressed = true;
+            i = 2;
+        }
+        while (i < end)
+        {
+            int next = ip.indexOf(':', i);
+            if (next < 0 || next > end)
+            {
+                next = end;
+            }
+            int dot = ip.indexOf('.', i);
+            long value;
+            int count;
+            if (dot >= 0 && dot < next)
+            {
+                if (next != end)
+                {
+                    return false;
+                }
+                value = parseIpv4(ip, i, end);
+                count = 2;
+            }
+            else
+            {
+                value = parseHexGroup(ip, i, next);
+                count = 1;
+            }
+            if (value < 0 || groups + tailGroups + count > 8)
+            {
+                return false;
+            }
+            int bits = count * 16;
+            if (compressed)
+            {
+                tailHigh = (tailHigh << bits) | (tailLow >>> (64 - bits));
+                tailLow = (tailLow << bits) | value;
+                tailGroups += count;
+            }
+            else
+            {
+                high = (high << bits) | (low >>> (64 - bits));
+                low = (low << bits) | value;
+                groups += count;
+            }
+            if (next == end)
+            {
+                break;
+            }
+            if (next + 1 < end && ip.charAt(next + 1) == ':')
+            {
+                if (compressed)
+                {
+                    return false;
+                }
+                compressed = true;
+                i = next + 2;
+            }
+            else
+            {
+                i = next + 1;
+                if (i == end)
+                {
+                    return false;
+                }
+            }
+        }
+        if (compressed ? groups + tailGroups > 7 : groups != 8)
+        {
+            return false;
+        }
+        if (compressed)
+        {
+            int shift = (8 - groups) * 16;
+            if (shift >= 128)
+            {
+                high = 0;
+                low = 0;
+            }
+            else if (shift >= 64)
+            {
+                high = low << (shift - 64);
+                low = 0;
+            }
+            else if (shift > 0)
+            {
+                high = (high << shift) | (low >>> (64 - shift));
+                low = low << shift;
+            }
+            high |= tailHigh;
+            low |= tailLow;
+        }
+        address[0] = high;
+        address[1] = low;
+        return true;
+    }
+
+    private static long parseHexGroup(String s, int from, int to)
+    {
+        if (to <= from || to - from > 4)
+        {
+            return -1;
+        }
+        long value = 0;
+        for (int i = from; i < to; i++)
+        {
+            int digit = Character.digit(s.charAt(i), 16);
+            if (digit < 0)
+            {
+                return -1;
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    /**
+     * Dotted quad as an unsigned 32 bit value, or -1 when malformed
+     */
+    static long parseIpv4(String s)
+    {
+        return parseIpv4(s, 0, s.length());
+    }
+
+    /**
+     * Dotted quad between from and to as an unsigned 32 bit value, or -1 when malformed
+     */
+    static long parseIpv4(String s, int from, int to)
+    {
+        long address = 0;
+        int octets = 0;
+        int value = -1;
+        for (int i = from; i < to; i++)
+        {
+            char c = s.charAt(i);
+            if (c == '.')
+            {
+                if (value < 0 || ++octets > 3)
+                {
+                    return -1;
+                }
+                address = (address << 8) | value;
+                value = -1;
+            }
+            else if (c >= '0' && c <= '9')
+            {
+                value = (value < 0 ? 0 : value * 10) + (c - '0');
+                if (value > 255)
+                {
+                    return -1;
+                }
+            }
+            else
+            {
+                return -1;
+            }
+        }
+        if (value < 0 || octets != 3)
+        {
+            return -1;
+        }
+        return (address << 8) | value;
+    }
+}
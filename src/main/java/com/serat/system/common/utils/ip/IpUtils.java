@@ -51,8 +51,20 @@ public class IpUtils
         return "0:0:0:0:0:0:0:1".equals(ip) ? "127.0.0.1" : getMultistageReverseProxyIp(ip);
     }
 
+    /** 10.0.0.0/8, 172.16.0.0/12, 192.168.0.0/16 and the IPv4 loopback address */
+    private static final IpMatcher INTERNAL = IpMatcher.compile("10.0.0.0/8;172.16.0.0/12;192.168.0.0/16;127.0.0.1");
+
+    /** Last compiled filter of isMatchedIp; the filter is a config value that rarely changes */
+    private static volatile IpMatcher filterMatcher = IpMatcher.compile("");
+
     public static boolean internalIp(String ip)
     {
+        long address = ip == null ? -1 : IpText.parseIpv4(ip);
+        if (address >= 0)
+        {
+            return INTERNAL.matchesIpv4((int) address);
+        }
+        // shorthand forms (a, a.b, a.b.c) and anything that is not IPv4
         byte[] addr = textToNumericFormatV4(ip);
         return internalIp(addr) || "127.0.0.1".equals(ip);
     }
@@ -275,28 +287,22 @@ public class IpUtils
         return ips <= ipt && ipt <= ipe;
     }
 
+    /**
+     * Whether the ip matches one of the ";" separated addresses, CIDR blocks, wildcards or ranges of the filter.
+     * The filter is compiled once and recompiled only when a different filter is passed.
+     */
     public static boolean isMatchedIp(String filter, String ip)
     {
         if (StringUtils.isEmpty(filter) || StringUtils.isEmpty(ip))
         {
             return false;
         }
-        String[] ips = filter.split(";");
-        for (String iStr : ips)
+        IpMatcher matcher = filterMatcher;
+        if (!filter.equals(matcher.getSource()))
         {
-            if (isIP(iStr) && iStr.equals(ip))
-            {
-                return true;
-            }
-            else if (isIpWildCard(iStr) && ipIsInWildCardNoCheck(iStr, ip))
-            {
-                return true;
-            }
-            else if (isIPSegment(iStr) && ipIsInNetNoCheck(iStr, ip))
-            {
-                return true;
-            }
+            matcher = IpMatcher.compile(filter);
+            filterMatcher = matcher;
         }
-        return false;
+        return matcher.matches(ip);
     }
 }
\ No newline at end of file
@@ -40,15 +40,13 @@ public class Seq
         return result;
     }
 
-    private synchronized static String getSeq(AtomicInteger atomicInt, int length)
+    /**
+     * Lock-free so that virtual threads calling it are never pinned to their carrier
+     */
+    private static String getSeq(AtomicInteger atomicInt, int length)
     {
-        int value = atomicInt.getAndIncrement();
-
-        int maxSeq = (int) Math.pow(10, length);
-        if (atomicInt.get() >= maxSeq)
-        {
-            atomicInt.set(1);
-        }
+        final int maxSeq = (int) Math.pow(10, length);
+        int value = atomicInt.getAndUpdate(current -> current + 1 >= maxSeq ? 1 : current + 1);
         return StringUtils.padl(value, length);
     }
 }
@@ -50,7 +50,7 @@ public class CaptchaController
 
         // Save verification code information
         String uuid = IdUtils.simpleUUID();
-        String verifyKey = CacheConstants.CAPTCHA_CODE_KEY + uuid;
+        String verifyKey = redisCache.namespaceKey(CacheConstants.CAPTCHA_CODE_KEY, uuid);
 
         String capStr = null, code = null;
         BufferedImage image = null;
@@ -2,7 +2,11 @@ package com.serat.system.controller.monitor;
 
 import com.serat.system.common.constant.CacheConstants;
 import com.serat.system.common.core.domain.AjaxResult;
+import com.serat.system.common.core.redis.RedisCache;
 import com.serat.system.common.utils.StringUtils;
+import com.serat.system.framework.web.service.CacheWarmupService;
+import com.serat.system.framework.web.service.LoginUserCache;
+import com.serat.system.framework.web.service.TokenService;
 import com.serat.system.system.domain.SysCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.RedisCallback;
@@ -19,6 +23,22 @@ public class CacheController
     @Autowired
     private RedisTemplate<String, String> redisTemplate;
 
+    @Autowired
+    private RedisCache redisCache;
+
+    @Autowired
+    private LoginUserCache loginUserCache;
+
+    @Autowired
+    private CacheWarmupService cacheWarmupService;
+
+    @Autowired
+    private TokenService tokenService;
+
+    /** Namespaces whose keys all expire on their own; clearing them starts a new generation instead of deleting */
+    private final static Set<String> GENERATION_NAMESPACES = new HashSet<>(
+            Arrays.asList(CacheConstants.CAPTCHA_CODE_KEY, CacheConstants.REPEAT_SUBMIT_KEY));
+
     private final static List<SysCache> caches = new ArrayList<SysCache>();
     {
         caches.add(new SysCache(CacheConstants.LOGIN_TOKEN_KEY, "User information"));
@@ -38,9 +58,12 @@ public class CacheController
         Properties commandStats = (Properties) redisTemplate.execute((RedisCallback<Object>) connection -> connection.info("commandstats"));
         Object dbSize = redisTemplate.execute((RedisCallback<Object>) connection -> connection.dbSize());
 
-        Map<String, Object> result = new HashMap<>(3);
+        Map<String, Object> result = new HashMap<>(4);
         result.put("info", info);
         result.put("dbSize", dbSize);
+        result.put("loginUserCache", loginUserCache.stats());
+        result.put("tokenClaimsCache", tokenService.claimsCacheStats());
+        result.put("cacheWarmup", cacheWarmupService.report());
 
         List<Map<String, String>> pieList = new ArrayList<>();
         commandStats.stringPropertyNames().forEach(key -> {
@@ -65,8 +88,7 @@ public class CacheController
     @GetMapping("/getKeys/{cacheName}")
     public AjaxResult getCacheKeys(@PathVariable String cacheName)
     {
-        Set<String> cacheKeys = redisTemplate.keys(cacheName + "*");
-        return AjaxResult.success(new TreeSet<>(cacheKeys));
+        return AjaxResult.success(new TreeSet<>(redisCache.keys(cacheName + "*")));
     }
 
     @PreAuthorize("@ss.hasPermi('monitor:cache:list')")
@@ -82,8 +104,22 @@ public class CacheController
     @DeleteMapping("/clearCacheName/{cacheName}")
     public AjaxResult clearCacheName(@PathVariable String cacheName)
     {
-        Collection<String> cacheKeys = redisTemplate.keys(cacheName + "*");
-        redisTemplate.delete(cacheKeys);
+        if (GENERATION_NAMESPACES.contains(cacheName))
+        {
+            redisCache.clearNamespace(cacheName);
+        }
+        else
+        {
+            redisCache.unlinkKeys(cacheName + "*");
+        }
+        if (CacheConstants.LOGIN_TOKEN_KEY.startsWith(cacheName))
+        {
+            loginUserCache.invalidateAll();
+        }
+        if (CacheConstants.SYS_CONFIG_KEY.startsWith(cacheName) || CacheConstants.SYS_DICT_KEY.startsWith(cacheName))
+        {
+            redisTemplate.delete(CacheConstants.SYS_CACHE_WARM_KEY);
+        }
         return AjaxResult.success();
     }
 
@@ -92,6 +128,14 @@ public class CacheController
     public AjaxResult clearCacheKey(@PathVariable String cacheKey)
     {
         redisTemplate.delete(cacheKey);
+        if (cacheKey.startsWith(CacheConstants.LOGIN_TOKEN_KEY))
+        {
+            loginUserCache.invalidate(StringUtils.removeStart(cacheKey, CacheConstants.LOGIN_TOKEN_KEY));
+        }
+        if (cacheKey.startsWith(CacheConstants.SYS_CONFIG_KEY) || cacheKey.startsWith(CacheConstants.SYS_DICT_KEY))
+        {
+            redisTemplate.delete(CacheConstants.SYS_CACHE_WARM_KEY);
+        }
         return AjaxResult.success();
     }
 
@@ -99,8 +143,8 @@ public class CacheController
     @DeleteMapping("/clearCacheAll")
     public AjaxResult clearCacheAll()
     {
-        Collection<String> cacheKeys = redisTemplate.keys("*");
-        redisTemplate.delete(cacheKeys);
+        redisCache.unlinkKeys("*");
+        loginUserCache.invalidateAll();
         return AjaxResult.success();
     }
 }
@@ -3,10 +3,14 @@ package com.serat.system.controller.monitor;
 import com.serat.system.common.annotation.Log;
 import com.serat.system.common.core.controller.BaseController;
 import com.serat.system.common.core.domain.AjaxResult;
+import com.serat.system.common.core.page.PageCursor;
+import com.serat.system.common.core.page.TableCount;
 import com.serat.system.common.core.page.TableDataInfo;
 import com.serat.system.common.enums.RequestType;
 import com.serat.system.common.utils.poi.ExcelUtil;
+import com.serat.system.framework.manager.LoginInfoWriter;
 import com.serat.system.framework.web.service.SysPasswordService;
+import com.serat.system.framework.web.service.TableCountService;
 import com.serat.system.system.domain.SysLogininfor;
 import com.serat.system.system.service.ISysLogininforService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,13 +30,32 @@ public class SysLogininforController extends BaseController
     @Autowired
     private SysPasswordService passwordService;
 
+    @Autowired
+    private LoginInfoWriter loginInfoWriter;
+
+    @Autowired
+    private TableCountService tableCountService;
+
     @PreAuthorize("@ss.hasPermi('monitor:logininfor:list')")
     @GetMapping("/list")
     public TableDataInfo list(SysLogininfor logininfor)
     {
-        startPage();
+        if (startCursorPage(logininfor, null))
+        {
+            List<SysLogininfor> list = logininforService.selectLogininforList(logininfor);
+            return getCursorDataTable(list, row -> new PageCursor(row.getLoginTime(), row.getInfoId()));
+        }
+        TableCount count = tableCountService.lookup("sys_logininfor", false);
+        startPage(count);
         List<SysLogininfor> list = logininforService.selectLogininforList(logininfor);
-        return getDataTable(list);
+        return getDataTable(list, count);
+    }
+
+    @PreAuthorize("@ss.hasPermi('monitor:logininfor:list')")
+    @GetMapping("/writer")
+    public AjaxResult writer()
+    {
+        return success(loginInfoWriter.stats());
     }
 
     @Log(title = "Login log", businessType = RequestType.EXPORT)
@@ -3,9 +3,13 @@ package com.serat.system.controller.monitor;
 import com.serat.system.common.annotation.Log;
 import com.serat.system.common.core.controller.BaseController;
 import com.serat.system.common.core.domain.AjaxResult;
+import com.serat.system.common.core.page.PageCursor;
+import com.serat.system.common.core.page.TableCount;
 import com.serat.system.common.core.page.TableDataInfo;
 import com.serat.system.common.enums.RequestType;
 import com.serat.system.common.utils.poi.ExcelUtil;
+import com.serat.system.framework.manager.OperLogWriter;
+import com.serat.system.framework.web.service.TableCountService;
 import com.serat.system.system.domain.SysOperLog;
 import com.serat.system.system.service.ISysOperLogService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,13 +26,32 @@ public class SysOperlogController extends BaseController
     @Autowired
     private ISysOperLogService operLogService;
 
+    @Autowired
+    private OperLogWriter operLogWriter;
+
+    @Autowired
+    private TableCountService tableCountService;
+
     @PreAuthorize("@ss.hasPermi('monitor:operlog:list')")
     @GetMapping("/list")
     public TableDataInfo list(SysOperLog operLog)
     {
-        startPage();
+        if (startCursorPage(operLog, null))
+        {
+            List<SysOperLog> list = operLogService.selectOperLogList(operLog);
+            return getCursorDataTable(list, row -> new PageCursor(row.getOperTime(), row.getOperId()));
+        }
+        TableCount count = tableCountService.lookup("sys_oper_log", false);
+        startPage(count);
         List<SysOperLog> list = operLogService.selectOperLogList(operLog);
-        return getDataTable(list);
+        return getDataTable(list, count);
+    }
+
+    @PreAuthorize("@ss.hasPermi('monitor:operlog:list')")
+    @GetMapping("/writer")
+    public AjaxResult writer()
+    {
+        return success(operLogWriter.stats());
     }
 
     @Log(title = "Operation log", businessType = RequestType.EXPORT)
@@ -1,14 +1,17 @@
 package com.serat.system.controller.monitor;
 
 import com.serat.system.common.annotation.Log;
-import com.serat.system.common.constant.CacheConstants;
 import com.serat.system.common.core.controller.BaseController;
 import com.serat.system.common.core.domain.AjaxResult;
 import com.serat.system.common.core.domain.dto.LoginUser;
+import com.serat.system.common.core.page.PageDomain;
 import com.serat.system.common.core.page.TableDataInfo;
-import com.serat.system.common.core.redis.RedisCache;
+import com.serat.system.common.core.page.TableSupport;
 import com.serat.system.common.enums.RequestType;
+import com.serat.system.common.utils.ServletUtils;
 import com.serat.system.common.utils.StringUtils;
+import com.serat.system.framework.web.service.LoginUserIndex;
+import com.serat.system.framework.web.service.TokenService;
 import com.serat.system.system.domain.SysUserOnline;
 import com.serat.system.system.service.ISysUserOnlineService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,8 +19,8 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 @RestController
@@ -28,37 +31,53 @@ public class SysUserOnlineController extends BaseController
     private ISysUserOnlineService userOnlineService;
 
     @Autowired
-    private RedisCache redisCache;
+    private LoginUserIndex loginUserIndex;
 
+    @Autowired
+    private TokenService tokenService;
+
+    /**
+     * Online sessions, newest login first. Paged in redis when pageNum/pageSize are given, otherwise the full list.
+     */
     @PreAuthorize("@ss.hasPermi('monitor:online:list')")
     @GetMapping("/list")
     public TableDataInfo list(String ipaddr, String userName)
     {
-        Collection<String> keys = redisCache.keys(CacheConstants.LOGIN_TOKEN_KEY + "*");
-        List<SysUserOnline> userOnlineList = new ArrayList<SysUserOnline>();
-        for (String key : keys)
+        boolean paged = StringUtils.isNotEmpty(ServletUtils.getParameter(TableSupport.PAGE_SIZE));
+        PageDomain pageDomain = TableSupport.buildPageRequest();
+        long offset = paged ? (long) (Math.max(pageDomain.getPageNum(), 1) - 1) * pageDomain.getPageSize() : 0;
+        long limit = paged ? pageDomain.getPageSize() : -1;
+
+        List<LoginUser> users;
+        long total;
+        if (StringUtils.isEmpty(ipaddr) && StringUtils.isEmpty(userName))
         {
-            LoginUser user = redisCache.getCacheObject2(key, LoginUser.class);
-            if (StringUtils.isNotEmpty(ipaddr) && StringUtils.isNotEmpty(userName))
-            {
-                userOnlineList.add(userOnlineService.selectOnlineByInfo(ipaddr, userName, user));
-            }
-            else if (StringUtils.isNotEmpty(ipaddr))
-            {
-                userOnlineList.add(userOnlineService.selectOnlineByIpaddr(ipaddr, user));
-            }
-            else if (StringUtils.isNotEmpty(userName) && StringUtils.isNotNull(user.getUser()))
-            {
-                userOnlineList.add(userOnlineService.selectOnlineByUserName(userName, user));
-            }
-            else
+            List<String> tokens = loginUserIndex.page(offset, limit);
+            users = tokenService.getLoginUsers(tokens, null, null);
+            // counted after the misses on this page have been pruned from the index
+            total = paged ? loginUserIndex.count() : users.size();
+        }
+        else
+        {
+            List<String> tokens = new ArrayList<>(loginUserIndex.find(ipaddr, userName));
+            users = tokenService.getLoginUsers(tokens, ipaddr, userName);
+            users.sort(Comparator.comparing(LoginUser::getLoginTime, Comparator.nullsLast(Comparator.reverseOrder())));
+            total = users.size();
+            if (paged)
             {
-                userOnlineList.add(userOnlineService.loginUserToUserOnline(user));
+                users = users.subList((int) Math.min(offset, total), (int) Math.min(offset + limit, total));
             }
         }
-        Collections.reverse(userOnlineList);
+
+        List<SysUserOnline> userOnlineList = new ArrayList<SysUserOnline>(users.size());
+        for (LoginUser user : users)
+        {
+            userOnlineList.add(userOnlineService.loginUserToUserOnline(user));
+        }
         userOnlineList.removeAll(Collections.singleton(null));
-        return getDataTable(userOnlineList);
+        TableDataInfo rspData = getDataTable(userOnlineList);
+        rspData.setTotal(total);
+        return rspData;
     }
 
     /**
@@ -69,7 +88,18 @@ public class SysUserOnlineController extends BaseController
     @DeleteMapping("/{tokenId}")
     public AjaxResult forceLogout(@PathVariable String tokenId)
     {
-        redisCache.deleteObject(CacheConstants.LOGIN_TOKEN_KEY + tokenId);
+        tokenService.delLoginUser(tokenId);
         return success();
     }
+
+    /**
+     * Forced withdrawal of every session held by a user
+     */
+    @PreAuthorize("@ss.hasPermi('monitor:online:forceLogout')")
+    @Log(title = "Online users", businessType = RequestType.FORCE)
+    @DeleteMapping("/user/{userName}")
+    public AjaxResult forceLogoutUser(@PathVariable String userName)
+    {
+        return success(tokenService.delLoginUsersByUserName(userName));
+    }
 }
@@ -7,6 +7,7 @@ import com.serat.system.common.core.domain.AjaxResult;
 import com.serat.system.common.core.domain.entity.SysMenu;
 import com.serat.system.common.enums.RequestType;
 import com.serat.system.common.utils.StringUtils;
+import com.serat.system.framework.web.service.PermissionRegistry;
 import com.serat.system.system.service.ISysMenuService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -22,6 +23,9 @@ public class SysMenuController extends BaseController
     @Autowired
     private ISysMenuService menuService;
 
+    @Autowired
+    private PermissionRegistry permissionRegistry;
+
     @PreAuthorize("@ss.hasPermi('system:menu:list')")
     @GetMapping("/list")
     public AjaxResult list(SysMenu menu)
@@ -64,6 +68,7 @@ public class SysMenuController extends BaseController
             return error("Adding menu '" + menu.getMenuName() + "' failed. The URL must start with http(s)://");
         }
         menu.setCreateBy(getUsername());
+        registerPerms(menu);
         return toAjax(menuService.insertMenu(menu));
     }
 
@@ -79,6 +84,7 @@ public class SysMenuController extends BaseController
             return error("Updating menu '" + menu.getMenuName() + "' failed. The parent menu cannot be itself.");
         }
         menu.setUpdateBy(getUsername());
+        registerPerms(menu);
         return toAjax(menuService.updateMenu(menu));
     }
 
@@ -94,4 +100,12 @@ public class SysMenuController extends BaseController
         }
         return toAjax(menuService.deleteMenuById(menuId));
     }
-}
\ No newline at end of file
+
+    private void registerPerms(SysMenu menu)
+    {
+        if (StringUtils.isNotEmpty(menu.getPerms()))
+        {
+            permissionRegistry.register(StringUtils.str2Set(menu.getPerms(), ","));
+        }
+    }
+}
@@ -6,11 +6,14 @@ import com.serat.system.common.core.domain.AjaxResult;
 import com.serat.system.common.core.domain.entity.SysDept;
 import com.serat.system.common.core.domain.entity.SysRole;
 import com.serat.system.common.core.domain.entity.SysUser;
+import com.serat.system.common.core.page.PageCursor;
+import com.serat.system.common.core.page.TableCount;
 import com.serat.system.common.core.page.TableDataInfo;
 import com.serat.system.common.enums.RequestType;
 import com.serat.system.common.utils.SecurityUtils;
 import com.serat.system.common.utils.StringUtils;
 import com.serat.system.common.utils.poi.ExcelUtil;
+import com.serat.system.framework.web.service.TableCountService;
 import com.serat.system.system.service.ISysDeptService;
 import com.serat.system.system.service.ISysPostService;
 import com.serat.system.system.service.ISysRoleService;
@@ -42,13 +45,22 @@ public class SysUserController extends BaseController
     @Autowired
     private ISysPostService postService;
 
+    @Autowired
+    private TableCountService tableCountService;
+
     @PreAuthorize("@ss.hasPermi('system:user:list')")
     @GetMapping("/list")
     public TableDataInfo list(SysUser user)
     {
-        startPage();
+        if (startCursorPage(user, "u.user_id"))
+        {
+            List<SysUser> list = userService.selectUserList(user);
+            return getCursorDataTable(list, row -> new PageCursor(row.getUserId()));
+        }
+        TableCount count = tableCountService.lookup("sys_user", true);
+        startPage(count);
         List<SysUser> list = userService.selectUserList(user);
-        return getDataTable(list);
+        return getDataTable(list, count);
     }
 
     @Log(title = "User Management", businessType = RequestType.EXPORT)
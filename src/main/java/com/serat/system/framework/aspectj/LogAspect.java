@@ -1,6 +1,5 @@
 package com.serat.system.framework.aspectj;
 
-import com.alibaba.fastjson2.JSON;
 import com.serat.system.common.annotation.Log;
 import com.serat.system.common.core.domain.entity.SysUser;
 import com.serat.system.common.core.domain.dto.LoginUser;
@@ -9,10 +8,10 @@ import com.serat.system.common.enums.HttpMethod;
 import com.serat.system.common.filter.PropertyPreExcludeFilter;
 import com.serat.system.common.utils.SecurityUtils;
 import com.serat.system.common.utils.ServletUtils;
+import com.serat.system.common.utils.BoundedJson;
 import com.serat.system.common.utils.StringUtils;
 import com.serat.system.common.utils.ip.IpUtils;
-import com.serat.system.framework.manager.AsyncManager;
-import com.serat.system.framework.manager.factory.AsyncFactory;
+import com.serat.system.framework.manager.OperLogWriter;
 import com.serat.system.system.domain.SysOperLog;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -24,6 +23,7 @@ import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.NamedThreadLocal;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.BindingResult;
@@ -31,6 +31,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Aspect
 @Component
@@ -40,8 +41,16 @@ public class LogAspect
 
     public static final String[] EXCLUDE_PROPERTIES = { "password", "oldPassword", "newPassword", "confirmPassword" };
 
+    /** Length of the oper_param and json_result columns */
+    private static final int MAX_CAPTURE_LENGTH = 2000;
+
+    private static final Map<Log, PropertyPreExcludeFilter> EXCLUDE_FILTERS = new ConcurrentHashMap<>();
+
     private static final ThreadLocal<Long> TIME_THREADLOCAL = new NamedThreadLocal<Long>("Cost Time");
 
+    @Autowired
+    private OperLogWriter operLogWriter;
+
     @Before(value = "@annotation(controllerLog)")
     public void boBefore(JoinPoint joinPoint, Log controllerLog)
     {
@@ -92,7 +101,7 @@ public class LogAspect
             operLog.setRequestMethod(ServletUtils.getRequest().getMethod());
             getControllerMethodDescription(joinPoint, controllerLog, operLog, jsonResult);
             operLog.setCostTime(System.currentTimeMillis() - TIME_THREADLOCAL.get());
-            AsyncManager.me().execute(AsyncFactory.recordOper(operLog));
+            operLogWriter.submit(operLog);
         }
         catch (Exception exp)
         {
@@ -105,57 +114,75 @@ public class LogAspect
         }
     }
 
+    /**
+     * Fills in the annotation attributes and the serialized request parameters and response body. They are
+     * serialized here, into strings capped at the column length, so a queued record holds no argument or result
+     * objects; the capped serialization stops at the limit, so this costs little on the request thread.
+     */
     public void getControllerMethodDescription(JoinPoint joinPoint, Log log, SysOperLog operLog, Object jsonResult) throws Exception
     {
         operLog.setBusinessType(log.businessType().ordinal());
         operLog.setTitle(log.title());
         operLog.setOperatorType(log.operatorType().ordinal());
+        PropertyPreExcludeFilter filter = excludePropertyPreFilter(log);
         if (log.isSaveRequestData())
         {
-            setRequestValue(joinPoint, operLog, log.excludeParamNames());
+            setRequestValue(joinPoint, operLog, filter);
         }
         if (log.isSaveResponseData() && StringUtils.isNotNull(jsonResult))
         {
-            operLog.setJsonResult(StringUtils.substring(JSON.toJSONString(jsonResult), 0, 2000));
+            operLog.setJsonResult(BoundedJson.toJSONString(jsonResult, MAX_CAPTURE_LENGTH, null));
         }
     }
 
-    private void setRequestValue(JoinPoint joinPoint, SysOperLog operLog, String[] excludeParamNames) throws Exception
+    private void setRequestValue(JoinPoint joinPoint, SysOperLog operLog, PropertyPreExcludeFilter filter) throws Exception
     {
         Map<?, ?> paramsMap = ServletUtils.getParamMap(ServletUtils.getRequest());
         String requestMethod = operLog.getRequestMethod();
         if (StringUtils.isEmpty(paramsMap) && StringUtils.equalsAny(requestMethod, HttpMethod.PUT.name(), HttpMethod.POST.name(), HttpMethod.DELETE.name()))
         {
-            String params = argsArrayToString(joinPoint.getArgs(), excludeParamNames);
-            operLog.setOperParam(StringUtils.substring(params, 0, 2000));
+            operLog.setOperParam(argsArrayToString(joinPoint.getArgs(), filter));
         }
         else
         {
-            operLog.setOperParam(StringUtils.substring(JSON.toJSONString(paramsMap, excludePropertyPreFilter(excludeParamNames)), 0, 2000));
+            operLog.setOperParam(BoundedJson.toJSONString(paramsMap, MAX_CAPTURE_LENGTH, filter));
         }
     }
 
-    private String argsArrayToString(Object[] paramsArray, String[] excludeParamNames)
+    private String argsArrayToString(Object[] paramsArray, PropertyPreExcludeFilter filter)
     {
-        String params = "";
-        if (paramsArray != null && paramsArray.length > 0)
+        StringBuilder params = new StringBuilder();
+        if (paramsArray != null)
         {
             for (Object o : paramsArray)
             {
-                if (StringUtils.isNotNull(o) && !isFilterObject(o))
+                if (StringUtils.isNull(o) || isFilterObject(o))
+                {
+                    continue;
+                }
+                int remaining = MAX_CAPTURE_LENGTH - params.length();
+                if (remaining <= 0)
+                {
+                    break;
+                }
+                try
+                {
+                    params.append(BoundedJson.toJSONString(o, remaining, filter)).append(' ');
+                }
+                catch (Exception e)
                 {
-                    try
-                    {
-                        String jsonObj = JSON.toJSONString(o, excludePropertyPreFilter(excludeParamNames));
-                        params += jsonObj.toString() + " ";
-                    }
-                    catch (Exception e)
-                    {
-                    }
                 }
             }
         }
-        return params.trim();
+        return StringUtils.substring(params.toString().trim(), 0, MAX_CAPTURE_LENGTH);
+    }
+
+    /**
+     * The exclude filter of a @Log never changes, so it is built once per annotation
+     */
+    public PropertyPreExcludeFilter excludePropertyPreFilter(Log log)
+    {
+        return EXCLUDE_FILTERS.computeIfAbsent(log, l -> excludePropertyPreFilter(l.excludeParamNames()));
     }
 
     public PropertyPreExcludeFilter excludePropertyPreFilter(String[] excludeParamNames)
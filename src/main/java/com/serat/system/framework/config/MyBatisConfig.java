@@ -52,15 +52,9 @@ public class MyBatisConfig
                     {
                         if (resource.isReadable())
                         {
+                            // the package is taken from the class name, so scanning does not load and initialize every class
                             metadataReader = metadataReaderFactory.getMetadataReader(resource);
-                            try
-                            {
-                                result.add(Class.forName(metadataReader.getClassMetadata().getClassName()).getPackage().getName());
-                            }
-                            catch (ClassNotFoundException e)
-                            {
-                                e.printStackTrace();
-                            }
+                            result.add(ClassUtils.getPackageName(metadataReader.getClassMetadata().getClassName()));
                         }
                     }
                 }
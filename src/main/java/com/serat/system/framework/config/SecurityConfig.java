@@ -1,12 +1,23 @@
 package com.serat.system.framework.config;
 
+import org.springframework.aop.Advisor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.authorization.method.AuthorizationManagerAfterMethodInterceptor;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+import org.springframework.security.authorization.method.PostAuthorizeAuthorizationManager;
+import org.springframework.security.authorization.method.PostFilterAuthorizationMethodInterceptor;
+import org.springframework.security.authorization.method.PreFilterAuthorizationMethodInterceptor;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -17,11 +28,17 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 import org.springframework.security.web.authentication.logout.LogoutFilter;
 import org.springframework.web.filter.CorsFilter;
 import com.serat.system.framework.config.properties.PermitAllUrlProperties;
+import com.serat.system.framework.security.authorization.PermissionAuthorizationManager;
 import com.serat.system.framework.security.filter.JwtAuthenticationTokenFilter;
 import com.serat.system.framework.security.handle.AuthenticationEntryPointImpl;
 import com.serat.system.framework.security.handle.LogoutSuccessHandlerImpl;
+import com.serat.system.framework.web.service.PermissionService;
 
-@EnableMethodSecurity(prePostEnabled = true, securedEnabled = true)
+/**
+ * prePostEnabled is off so that @PreAuthorize goes through the compiled permission check below; the other
+ * pre/post annotations (@PostAuthorize, @PreFilter, @PostFilter) are registered next to it with the standard interceptors
+ */
+@EnableMethodSecurity(prePostEnabled = false, securedEnabled = true)
 @Configuration
 public class SecurityConfig
 {
@@ -81,7 +98,7 @@ public class SecurityConfig
                     permitAllUrl.getUrls().forEach(url -> requests.requestMatchers(url).permitAll());
                     requests.requestMatchers("/auth/**", "/system/**","/ticket/**","/monitor/**", "/register", "/captchaImage").permitAll()
                             .requestMatchers(HttpMethod.GET, "/", "/*.html", "/**/*.html", "/**/*.css", "/**/*.js", "/profile/**").permitAll()
-                            .requestMatchers("/swagger-ui.html", "/swagger-resources/**", "/webjars/**", "/*/api-docs", "/druid/**").permitAll()
+                            .requestMatchers("/swagger-ui.html", "/swagger-resources/**", "/webjars/**", "/*/api-docs", "/druid/**", "/actuator/health/**").permitAll()
                             .anyRequest().authenticated();
                 })
                 .logout(logout -> logout.logoutUrl("/logout").logoutSuccessHandler(logoutSuccessHandler))
@@ -91,6 +108,52 @@ public class SecurityConfig
                 .build();
     }
 
+    /**
+     * @PreAuthorize interceptor: @ss expressions are compiled to direct PermissionService calls, the rest go through SpEL
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor preAuthorizeAuthorizationMethodInterceptor(ObjectProvider<PermissionService> permissionService,
+            ApplicationContext context)
+    {
+        return AuthorizationManagerBeforeMethodInterceptor
+                .preAuthorize(new PermissionAuthorizationManager(permissionService::getObject, expressionHandler(context)));
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor postAuthorizeAuthorizationMethodInterceptor(ApplicationContext context)
+    {
+        PostAuthorizeAuthorizationManager manager = new PostAuthorizeAuthorizationManager();
+        manager.setExpressionHandler(expressionHandler(context));
+        return AuthorizationManagerAfterMethodInterceptor.postAuthorize(manager);
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor preFilterAuthorizationMethodInterceptor(ApplicationContext context)
+    {
+        PreFilterAuthorizationMethodInterceptor interceptor = new PreFilterAuthorizationMethodInterceptor();
+        interceptor.setExpressionHandler(expressionHandler(context));
+        return interceptor;
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor postFilterAuthorizationMethodInterceptor(ApplicationContext context)
+    {
+        PostFilterAuthorizationMethodInterceptor interceptor = new PostFilterAuthorizationMethodInterceptor();
+        interceptor.setExpressionHandler(expressionHandler(context));
+        return interceptor;
+    }
+
+    private static DefaultMethodSecurityExpressionHandler expressionHandler(ApplicationContext context)
+    {
+        DefaultMethodSecurityExpressionHandler expressionHandler = new DefaultMethodSecurityExpressionHandler();
+        expressionHandler.setApplicationContext(context);
+        return expressionHandler;
+    }
+
     @Bean
     public BCryptPasswordEncoder bCryptPasswordEncoder()
     {
@@ -0,0 +1,139 @@
+package com.serat.system.framework.config;
+
+import com.alibaba.fastjson2.JSONB;
+import com.serat.system.common.core.domain.dto.LoginUser;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Writes login sessions as versioned JSONB (no class names), deflated above a size threshold.
+ * Any other value, and any session written before this codec existed, goes through the json serializer.
+ *
+ * Layout: magic (2 bytes) | version (1 byte) | flags (1 byte) | payload
+ */
+public class SessionRedisSerializer implements RedisSerializer<Object>
+{
+    static final byte MAGIC_0 = (byte) 0xC5;
+
+    static final byte MAGIC_1 = (byte) 0x53;
+
+    static final byte VERSION_1 = 1;
+
+    static final byte FLAG_DEFLATE = 1;
+
+    private static final int HEADER_LENGTH = 4;
+
+    private final RedisSerializer<Object> fallback;
+
+    private final int compressThreshold;
+
+    public SessionRedisSerializer(RedisSerializer<Object> fallback, int compressThreshold)
+    {
+        this.fallback = fallback;
+        this.compressThreshold = compressThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object t) throws SerializationException
+    {
+        if (!(t instanceof LoginUser))
+        {
+            return fallback.serialize(t);
+        }
+        byte[] payload = JSONB.toBytes(t);
+        byte flags = 0;
+        if (compressThreshold > 0 && payload.length > compressThreshold)
+        {
+            payload = deflate(payload);
+            flags |= FLAG_DEFLATE;
+        }
+        byte[] bytes = new byte[HEADER_LENGTH + payload.length];
+        bytes[0] = MAGIC_0;
+        bytes[1] = MAGIC_1;
+        bytes[2] = VERSION_1;
+        bytes[3] = flags;
+        System.arraycopy(payload, 0, bytes, HEADER_LENGTH, payload.length);
+        return bytes;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException
+    {
+        if (!isSession(bytes))
+        {
+            return fallback.deserialize(bytes);
+        }
+        if (bytes[2] != VERSION_1)
+        {
+            throw new SerializationException("Unsupported session codec version: " + bytes[2]);
+        }
+        byte[] payload = Arrays.copyOfRange(bytes, HEADER_LENGTH, bytes.length);
+        if ((bytes[3] & FLAG_DEFLATE) != 0)
+        {
+            payload = inflate(payload);
+        }
+        return JSONB.parseObject(payload, LoginUser.class);
+    }
+
+    private static boolean isSession(byte[] bytes)
+    {
+        return bytes != null && bytes.length > HEADER_LENGTH && bytes[0] == MAGIC_0 && bytes[1] == MAGIC_1;
+    }
+
+    private static byte[] deflate(byte[] data)
+    {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try
+        {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2);
+            byte[] buffer = new byte[1024];
+            while (!deflater.finished())
+            {
+                int count = deflater.deflate(buffer);
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        }
+        finally
+        {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data)
+    {
+        Inflater inflater = new Inflater();
+        try
+        {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 3);
+            byte[] buffer = new byte[1024];
+            while (!inflater.finished())
+            {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && inflater.needsInput())
+                {
+                    throw new SerializationException("Truncated session payload");
+                }
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        }
+        catch (DataFormatException e)
+        {
+            throw new SerializationException("Corrupt session payload", e);
+        }
+        finally
+        {
+            inflater.end();
+        }
+    }
+}
@@ -2,13 +2,18 @@ package com.serat.system.framework.config;
 
 import com.serat.system.common.utils.Threads;
 import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class ThreadPoolConfig
@@ -21,9 +26,29 @@ public class ThreadPoolConfig
 
     private int keepAliveSeconds = 300;
 
+    private int virtualSchedulerPoolSize = 4;
+
+    /**
+     * Same switch that moves Tomcat request handling onto virtual threads (needs a Java 21 runtime)
+     */
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    /**
+     * Async work. With virtual threads every task gets its own virtual thread, so concurrency is not capped
+     * by a pool size; otherwise the bounded platform pool.
+     */
     @Bean(name = "threadPoolTaskExecutor")
-    public ThreadPoolTaskExecutor threadPoolTaskExecutor()
+    public AsyncTaskExecutor threadPoolTaskExecutor()
     {
+        if (virtualThreads)
+        {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("async-vt-");
+            executor.setVirtualThreads(true);
+            // lets running tasks finish when the context closes, like the pool's shutdown
+            executor.setTaskTerminationTimeout(TimeUnit.SECONDS.toMillis(10));
+            return executor;
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setMaxPoolSize(maxPoolSize);
         executor.setCorePoolSize(corePoolSize);
@@ -33,11 +58,15 @@ public class ThreadPoolConfig
         return executor;
     }
 
+    /**
+     * Delayed and periodic tasks, always on platform threads. With virtual threads AsyncManager only uses it
+     * to time its tasks and runs them on threadPoolTaskExecutor, so a few threads are enough.
+     */
     @Bean(name = "scheduledExecutorService")
     protected ScheduledExecutorService scheduledExecutorService()
     {
-        return new ScheduledThreadPoolExecutor(corePoolSize,
-                new BasicThreadFactory.Builder().namingPattern("schedule-pool-%d").daemon(true).build(),
+        ThreadFactory threadFactory = new BasicThreadFactory.Builder().namingPattern("schedule-pool-%d").daemon(true).build();
+        return new ScheduledThreadPoolExecutor(virtualThreads ? virtualSchedulerPoolSize : corePoolSize, threadFactory,
                 new ThreadPoolExecutor.CallerRunsPolicy())
         {
             @Override
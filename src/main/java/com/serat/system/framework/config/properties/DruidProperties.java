@@ -46,10 +46,15 @@ public class DruidProperties
     @Value("${spring.datasource.druid.testOnReturn}")
     private boolean testOnReturn;
 
+    @Value("${spring.datasource.druid.asyncInit:false}")
+    private boolean asyncInit;
+
     public DruidDataSource dataSource(DruidDataSource datasource)
     {
         /** Configure initialization size, minimum, maximum */
         datasource.setInitialSize(initialSize);
+        /** Open the initial connections in the background instead of one after another during startup */
+        datasource.setAsyncInit(asyncInit);
         datasource.setMaxActive(maxActive);
         datasource.setMinIdle(minIdle);
 
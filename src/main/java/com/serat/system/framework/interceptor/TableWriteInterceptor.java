@@ -0,0 +1,72 @@
+package com.serat.system.framework.interceptor;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import jakarta.annotation.PostConstruct;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import com.serat.system.framework.web.service.TableCountService;
+import com.serat.system.system.mapper.SysLogininforMapper;
+import com.serat.system.system.mapper.SysOperLogMapper;
+import com.serat.system.system.mapper.SysUserMapper;
+
+/**
+ * Invalidates cached list counts whenever a mapper writes to one of the counted tables
+ */
+@Component
+@Intercepts({ @Signature(type = Executor.class, method = "update", args = { MappedStatement.class, Object.class }) })
+public class TableWriteInterceptor implements Interceptor
+{
+    private static final Map<String, String> TABLES = new HashMap<>();
+
+    static
+    {
+        TABLES.put(SysOperLogMapper.class.getName(), "sys_oper_log");
+        TABLES.put(SysLogininforMapper.class.getName(), "sys_logininfor");
+        TABLES.put(SysUserMapper.class.getName(), "sys_user");
+    }
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private TableCountService tableCountService;
+
+    @PostConstruct
+    public void init()
+    {
+        sqlSessionFactory.getConfiguration().addInterceptor(this);
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable
+    {
+        Object result = invocation.proceed();
+        String id = ((MappedStatement) invocation.getArgs()[0]).getId();
+        String table = TABLES.get(id.substring(0, Math.max(0, id.lastIndexOf('.'))));
+        if (table != null)
+        {
+            tableCountService.invalidate(table);
+        }
+        return result;
+    }
+
+    @Override
+    public Object plugin(Object target)
+    {
+        return target instanceof Executor ? Interceptor.super.plugin(target) : target;
+    }
+
+    @Override
+    public void setProperties(Properties properties)
+    {
+    }
+}
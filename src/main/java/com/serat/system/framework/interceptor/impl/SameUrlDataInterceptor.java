@@ -53,7 +53,7 @@ public class SameUrlDataInterceptor extends RepeatSubmitInterceptor
 
         String submitKey = StringUtils.trimToEmpty(request.getHeader(header));
 
-        String cacheRepeatKey = CacheConstants.REPEAT_SUBMIT_KEY + url + submitKey;
+        String cacheRepeatKey = redisCache.namespaceKey(CacheConstants.REPEAT_SUBMIT_KEY, url + submitKey);
 
         Object sessionObj = redisCache.getCacheObject(cacheRepeatKey);
         if (sessionObj != null)
@@ -2,8 +2,10 @@ package com.serat.system.framework.manager;
 
 import com.serat.system.common.utils.Threads;
 import com.serat.system.common.utils.spring.SpringUtils;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 
 import java.util.TimerTask;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -13,6 +15,11 @@ public class AsyncManager
 
     private ScheduledExecutorService executor = SpringUtils.getBean("scheduledExecutorService");
 
+    private Executor asyncExecutor = SpringUtils.getBean("threadPoolTaskExecutor");
+
+    /** With virtual threads the scheduler only times the tasks; each one runs on its own virtual thread */
+    private boolean virtualThreads = asyncExecutor instanceof SimpleAsyncTaskExecutor;
+
     private AsyncManager(){}
 
     private static AsyncManager me = new AsyncManager();
@@ -24,6 +31,11 @@ public class AsyncManager
 
     public void execute(TimerTask task)
     {
+        if (virtualThreads)
+        {
+            executor.schedule(() -> asyncExecutor.execute(task), OPERATE_DELAY_TIME, TimeUnit.MILLISECONDS);
+            return;
+        }
         executor.schedule(task, OPERATE_DELAY_TIME, TimeUnit.MILLISECONDS);
     }
 
@@ -0,0 +1,286 @@
+package com.serat.system.framework.manager;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import com.alibaba.fastjson2.JSONB;
+import com.serat.system.common.core.queue.SegmentSpool;
+import com.serat.system.system.domain.SysLogininfor;
+import com.serat.system.system.domain.SysOperLog;
+import com.serat.system.system.service.ISysLogininforService;
+import com.serat.system.system.service.ISysOperLogService;
+
+/**
+ * Local disk spool for audit records that could not be inserted because the database was unavailable.
+ * While a failure is recent the writers spool directly instead of waiting on the pool; the replayer
+ * drains the spool back into sys_oper_log and sys_logininfor once inserts succeed again.
+ */
+@Component
+public class AuditSpool
+{
+    private static final Logger log = LoggerFactory.getLogger(AuditSpool.class);
+
+    private static final byte OPER_LOG = 1;
+
+    private static final byte LOGIN_INFO = 2;
+
+    @Value("${serat.spool.enabled:true}")
+    private boolean enabled;
+
+    @Value("${serat.spool.path:${serat.profile}/spool}")
+    private String path;
+
+    @Value("${serat.spool.segmentSize:16777216}")
+    private int segmentSize;
+
+    @Value("${serat.spool.replayInterval:5000}")
+    private long replayInterval;
+
+    @Value("${serat.spool.replayBatchSize:500}")
+    private int replayBatchSize;
+
+    @Autowired
+    private ISysOperLogService operLogService;
+
+    @Autowired
+    private ISysLogininforService logininforService;
+
+    @Autowired
+    private ScheduledExecutorService scheduledExecutorService;
+
+    private final LongAdder spooled = new LongAdder();
+
+    private final LongAdder replayed = new LongAdder();
+
+    private final LongAdder discarded = new LongAdder();
+
+    private volatile long unavailableUntil;
+
+    private SegmentSpool spool;
+
+    private ScheduledFuture<?> replayer;
+
+    @PostConstruct
+    public void init()
+    {
+        if (!enabled)
+        {
+            return;
+        }
+        try
+        {
+            spool = new SegmentSpool(Paths.get(path), segmentSize);
+        }
+        catch (Exception e)
+        {
+            log.error("Audit spool at {} could not be opened and is disabled: {}", path, e.getMessage());
+            return;
+        }
+        replayer = scheduledExecutorService.scheduleWithFixedDelay(this::replay, replayInterval, replayInterval,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isEnabled()
+    {
+        return spool != null;
+    }
+
+    /**
+     * False while a recent connectivity failure says inserts would only block until they time out
+     */
+    public boolean isDatabaseAvailable()
+    {
+        return System.currentTimeMillis() >= unavailableUntil;
+    }
+
+    /**
+     * Whether the failure means the database could not be reached, as opposed to a record it rejected
+     */
+    public boolean isUnavailable(Exception e)
+    {
+        boolean unavailable = e instanceof DataAccessResourceFailureException || e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException;
+        if (unavailable)
+        {
+            unavailableUntil = System.currentTimeMillis() + replayInterval;
+        }
+        return unavailable;
+    }
+
+    public boolean spoolOperLogs(List<SysOperLog> operLogs)
+    {
+        return append(OPER_LOG, operLogs);
+    }
+
+    public boolean spoolLogininfors(List<SysLogininfor> logininfors)
+    {
+        return append(LOGIN_INFO, logininfors);
+    }
+
+    private boolean append(byte type, List<?> records)
+    {
+        if (spool == null)
+        {
+            return false;
+        }
+        try
+        {
+            for (Object record : records)
+            {
+                spool.append(type, JSONB.toBytes(record));
+            }
+            spool.force();
+            spooled.add(records.size());
+            return true;
+        }
+        catch (Exception e)
+        {
+            log.error("Failed to spool {} audit records: {}", records.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Replays spooled batches until the spool is empty or the database fails again
+     */
+    private void replay()
+    {
+        try
+        {
+            while (!spool.isEmpty())
+            {
+                SegmentSpool.Batch batch = spool.read(replayBatchSize);
+                if (batch.isEmpty())
+                {
+                    break;
+                }
+                byte type = batch.getRecords().get(0).getType();
+                if (type == OPER_LOG)
+                {
+                    replay(batch, SysOperLog.class, operLogService::insertOperlogBatch, operLogService::insertOperlog);
+                }
+                else if (type == LOGIN_INFO)
+                {
+                    replay(batch, SysLogininfor.class, logininforService::insertLogininforBatch,
+                            logininforService::insertLogininfor);
+                }
+                else
+                {
+                    discarded.add(batch.getRecords().size());
+                    log.error("Discarding {} spooled audit records of unknown type {}", batch.getRecords().size(), type);
+                    spool.commit(batch);
+                }
+                unavailableUntil = 0;
+            }
+        }
+        catch (Exception e)
+        {
+            log.warn("Audit spool replay paused, {} bytes pending: {}", spool.pendingBytes(), e.getMessage());
+        }
+    }
+
+    /**
+     * Inserts a batch of one record type and commits it. The batch goes in as one multi-row insert, which either
+     * fully succeeds or inserts nothing; when the database rejects it, rows are retried one by one and rejected rows
+     * are dropped, so a bad record cannot stall the spool. A connectivity failure during the row by row retry
+     * commits the rows already inserted before it aborts the pass, so the next pass does not insert them twice.
+     */
+    private <T> void replay(SegmentSpool.Batch batch, Class<T> clazz, Consumer<List<T>> batchInsert, Consumer<T> insert)
+            throws IOException
+    {
+        List<SegmentSpool.Record> records = batch.getRecords();
+        List<T> rows = new ArrayList<>(records.size());
+        List<Integer> positions = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++)
+        {
+            try
+            {
+                rows.add(JSONB.parseObject(records.get(i).getPayload(), clazz));
+                positions.add(i);
+            }
+            catch (Exception e)
+            {
+                discarded.increment();
+                log.error("Discarding unreadable spooled audit record: {}", e.getMessage());
+            }
+        }
+        try
+        {
+            if (!rows.isEmpty())
+            {
+                batchInsert.accept(rows);
+            }
+        }
+        catch (Exception e)
+        {
+            if (isUnavailable(e))
+            {
+                throw e;
+            }
+            for (int i = 0; i < rows.size(); i++)
+            {
+                try
+                {
+                    insert.accept(rows.get(i));
+                }
+                catch (Exception ex)
+                {
+                    if (isUnavailable(ex))
+                    {
+                        if (positions.get(i) > 0)
+                        {
+                            spool.commit(batch.upTo(positions.get(i)));
+                            replayed.add(i);
+                        }
+                        throw ex;
+                    }
+                    discarded.increment();
+                    log.error("Discarding spooled audit record rejected by the database: {}", ex.getMessage());
+                }
+            }
+        }
+        spool.commit(batch);
+        replayed.add(rows.size());
+    }
+
+    public void shutdown()
+    {
+        if (replayer != null)
+        {
+            replayer.cancel(false);
+        }
+        if (spool != null)
+        {
+            spool.close();
+        }
+    }
+
+    public Map<String, Object> stats()
+    {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", isEnabled());
+        stats.put("pendingBytes", spool == null ? 0 : spool.pendingBytes());
+        stats.put("spooled", spooled.sum());
+        stats.put("replayed", replayed.sum());
+        stats.put("discarded", discarded.sum());
+        stats.put("databaseAvailable", isDatabaseAvailable());
+        return stats;
+    }
+}
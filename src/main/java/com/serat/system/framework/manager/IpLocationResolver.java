@@ -0,0 +1,323 @@
+package com.serat.system.framework.manager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.serat.system.common.core.cache.LocalCache;
+import com.serat.system.common.utils.StringUtils;
+import com.serat.system.common.utils.ip.AddressUtils;
+
+/**
+ * Shared IP location lookup in front of AddressUtils.
+ * Private addresses and the offline database are answered directly; remote lookups are cached with a ttl,
+ * failures are cached for a shorter ttl, and concurrent lookups of one address share a single remote call.
+ * After repeated consecutive failures the remote service is not called for a while (circuit open);
+ * once that passes a single trial call decides whether it is closed again.
+ */
+@Component
+public class IpLocationResolver
+{
+    private static final Logger log = LoggerFactory.getLogger(IpLocationResolver.class);
+
+    /** Location shown while a remote lookup is still running */
+    public static final String PENDING = "Resolving";
+
+    @Value("${serat.ipLocation.cacheSize:10000}")
+    private int cacheSize;
+
+    @Value("${serat.ipLocation.cacheTtl:86400}")
+    private long cacheTtl;
+
+    @Value("${serat.ipLocation.failureTtl:300}")
+    private long failureTtl;
+
+    @Value("${serat.ipLocation.timeout:3000}")
+    private int timeout;
+
+    @Value("${serat.ipLocation.writerWait:200}")
+    private long writerWait;
+
+    @Value("${serat.ipLocation.threads:2}")
+    private int threads;
+
+    @Value("${serat.ipLocation.breakerThreshold:5}")
+    private int breakerThreshold;
+
+    @Value("${serat.ipLocation.breakerOpen:60}")
+    private long breakerOpen;
+
+    private LocalCache<String, String> locations;
+
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    private final AtomicBoolean trialRunning = new AtomicBoolean();
+
+    private volatile long openUntil;
+
+    private final LongAdder remoteCalls = new LongAdder();
+
+    private final LongAdder remoteFailures = new LongAdder();
+
+    private final LongAdder shortCircuited = new LongAdder();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    private final LongAdder timedOut = new LongAdder();
+
+    @PostConstruct
+    public void init()
+    {
+        locations = new LocalCache<>(cacheSize, TimeUnit.SECONDS.toMillis(cacheTtl));
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1000),
+                new BasicThreadFactory.Builder().namingPattern("ip-location-%d").daemon(true).build(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Lookup of several addresses for an audit writer thread: the lookups run in parallel and are waited for
+     * together for at most writerWait milliseconds, so a slow location service cannot hold up the inserts.
+     * Addresses still unresolved then are {@link AddressUtils#UNKNOWN}; their lookups finish in the background
+     * and are cached for later records.
+     */
+    public Map<String, String> resolveAll(Collection<String> ips)
+    {
+        Map<String, String> addresses = new HashMap<>();
+        Map<String, CompletableFuture<String>> pending = new HashMap<>();
+        for (String ip : ips)
+        {
+            if (addresses.containsKey(ip) || pending.containsKey(ip))
+            {
+                continue;
+            }
+            String address = resolveCached(ip);
+            if (address != null)
+            {
+                addresses.put(ip, address);
+            }
+            else
+            {
+                pending.put(ip, lookup(ip));
+            }
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(writerWait);
+        for (Map.Entry<String, CompletableFuture<String>> entry : pending.entrySet())
+        {
+            String address;
+            try
+            {
+                address = entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+            catch (TimeoutException e)
+            {
+                timedOut.increment();
+                address = AddressUtils.UNKNOWN;
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                address = AddressUtils.UNKNOWN;
+            }
+            catch (ExecutionException e)
+            {
+                address = AddressUtils.UNKNOWN;
+            }
+            addresses.put(entry.getKey(), address);
+        }
+        return addresses;
+    }
+
+    /**
+     * Non-blocking lookup, for request threads: returns {@link #PENDING} when the remote service has to be asked,
+     * and hands the location to the callback once it is known
+     */
+    public String resolveNow(String ip, Consumer<String> onResolved)
+    {
+        String address = resolveCached(ip);
+        if (address != null)
+        {
+            return address;
+        }
+        CompletableFuture<String> future = lookup(ip);
+        if (future.isDone())
+        {
+            return future.join();
+        }
+        future.thenAccept(onResolved);
+        // completed meanwhile: the callback already ran on this thread, so the result must not be overwritten
+        return future.isDone() ? future.join() : PENDING;
+    }
+
+    public Map<String, Object> stats()
+    {
+        Map<String, Object> stats = new LinkedHashMap<>(locations.stats());
+        stats.put("inFlight", inFlight.size());
+        stats.put("remoteCalls", remoteCalls.sum());
+        stats.put("remoteFailures", remoteFailures.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("shortCircuited", shortCircuited.sum());
+        stats.put("writerTimedOut", timedOut.sum());
+        stats.put("circuitOpen", System.currentTimeMillis() < openUntil);
+        return stats;
+    }
+
+    private String resolveCached(String ip)
+    {
+        if (ip == null)
+        {
+            return AddressUtils.UNKNOWN;
+        }
+        String address = AddressUtils.getLocalAddress(ip);
+        return address != null ? address : locations.get(ip);
+    }
+
+    private CompletableFuture<String> lookup(String ip)
+    {
+        CompletableFuture<String> created = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(ip, created);
+        if (existing != null)
+        {
+            coalesced.increment();
+            return existing;
+        }
+        final Boolean trial = allowRemoteCall();
+        if (trial == null)
+        {
+            shortCircuited.increment();
+            complete(ip, created, AddressUtils.UNKNOWN);
+            return created;
+        }
+        try
+        {
+            executor.execute(() -> {
+                String address = null;
+                try
+                {
+                    // the circuit may have opened while this lookup was queued
+                    if (!trial && circuitOpen())
+                    {
+                        shortCircuited.increment();
+                    }
+                    else
+                    {
+                        address = remoteLookup(ip, trial);
+                    }
+                }
+                finally
+                {
+                    complete(ip, created, address);
+                }
+            });
+        }
+        catch (RejectedExecutionException e)
+        {
+            if (trial)
+            {
+                trialRunning.set(false);
+            }
+            complete(ip, created, AddressUtils.UNKNOWN);
+        }
+        return created;
+    }
+
+    private String remoteLookup(String ip, boolean trial)
+    {
+        remoteCalls.increment();
+        String address = null;
+        try
+        {
+            address = AddressUtils.getRemoteAddress(ip, timeout);
+        }
+        finally
+        {
+            recordOutcome(address != null, trial);
+        }
+        if (address == null)
+        {
+            remoteFailures.increment();
+            locations.put(ip, AddressUtils.UNKNOWN, TimeUnit.SECONDS.toMillis(failureTtl));
+            return AddressUtils.UNKNOWN;
+        }
+        locations.put(ip, address);
+        return address;
+    }
+
+    private void complete(String ip, CompletableFuture<String> future, String address)
+    {
+        inFlight.remove(ip, future);
+        future.complete(StringUtils.nvl(address, AddressUtils.UNKNOWN));
+    }
+
+    /**
+     * Closed: every call goes through. Open: none until openUntil. After that: one trial call at a time.
+     *
+     * @return null if the call is not allowed, true if it is the trial call, false for a call while closed
+     */
+    private Boolean allowRemoteCall()
+    {
+        if (!circuitOpen())
+        {
+            return Boolean.FALSE;
+        }
+        if (System.currentTimeMillis() < openUntil)
+        {
+            return null;
+        }
+        return trialRunning.compareAndSet(false, true) ? Boolean.TRUE : null;
+    }
+
+    private boolean circuitOpen()
+    {
+        return consecutiveFailures.get() >= breakerThreshold;
+    }
+
+    private void recordOutcome(boolean success, boolean trial)
+    {
+        if (success)
+        {
+            if (consecutiveFailures.getAndSet(0) >= breakerThreshold)
+            {
+                log.info("IP location service recovered, resuming remote lookups");
+            }
+        }
+        else if (consecutiveFailures.incrementAndGet() >= breakerThreshold)
+        {
+            openUntil = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(breakerOpen);
+            log.warn("IP location service failed {} times in a row, pausing remote lookups for {}s",
+                    consecutiveFailures.get(), breakerOpen);
+        }
+        if (trial)
+        {
+            trialRunning.set(false);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.serat.system.framework.manager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.serat.system.common.utils.ip.AddressUtils;
+import com.serat.system.common.utils.ip.IpRegionDatabase;
+
+/**
+ * Loads the offline IP region database used by AddressUtils and reloads it when the file changes.
+ * A new version is picked up once it has been renamed over the old one; a broken file keeps the previous version in use.
+ */
+@Component
+public class IpRegionLoader
+{
+    private static final Logger log = LoggerFactory.getLogger(IpRegionLoader.class);
+
+    @Value("${serat.ipRegion.path:${serat.profile}/ipdb/ip-region.db}")
+    private String path;
+
+    @Value("${serat.ipRegion.reloadInterval:60}")
+    private long reloadInterval;
+
+    @Autowired
+    private ScheduledExecutorService scheduledExecutorService;
+
+    /** Modification time and size of the loaded file */
+    private String loadedVersion;
+
+    /**
+     * The first load is run by the StartupOrchestrator
+     */
+    @PostConstruct
+    public void init()
+    {
+        if (reloadInterval > 0)
+        {
+            scheduledExecutorService.scheduleWithFixedDelay(this::reload, reloadInterval, reloadInterval, TimeUnit.SECONDS);
+        }
+    }
+
+    public synchronized void reload()
+    {
+        Path file = Paths.get(path);
+        try
+        {
+            if (!Files.isRegularFile(file))
+            {
+                if (loadedVersion == null)
+                {
+                    log.info("No IP region database at {}, locations are looked up remotely if enabled", file);
+                    loadedVersion = "";
+                }
+                return;
+            }
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            String version = attributes.lastModifiedTime().toMillis() + ":" + attributes.size();
+            if (version.equals(loadedVersion))
+            {
+                return;
+            }
+            // recorded before opening, so a broken file is reported once rather than on every check
+            loadedVersion = version;
+            IpRegionDatabase database = IpRegionDatabase.open(file);
+            AddressUtils.setRegionDatabase(database);
+            log.info("Loaded IP region database {}: {} IPv4 and {} IPv6 ranges", file, database.getIpv4Count(),
+                    database.getIpv6Count());
+        }
+        catch (Exception e)
+        {
+            log.error("Could not load IP region database {}: {}", file, e.getMessage());
+        }
+    }
+}
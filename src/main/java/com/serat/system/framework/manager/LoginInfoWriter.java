@@ -0,0 +1,349 @@
+package com.serat.system.framework.manager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.serat.system.common.constant.Constants;
+import com.serat.system.common.core.queue.BatchWriter;
+import com.serat.system.common.utils.LogUtils;
+import com.serat.system.common.utils.ServletUtils;
+import com.serat.system.common.utils.StringUtils;
+import com.serat.system.common.utils.ip.IpUtils;
+import com.serat.system.framework.web.service.UserAgentCache;
+import com.serat.system.system.domain.SysLogininfor;
+import com.serat.system.system.service.ISysLogininforService;
+
+/**
+ * Login record pipeline. The request thread only captures the raw attempt; user agent parsing, geolocation
+ * and the insert happen in batches on the writer thread.
+ * Identical failed attempts from one ip inside the coalesce window are folded into a single follow-up record,
+ * and once the queue passes the shed threshold new failed attempts are dropped so successful logins still get through.
+ */
+@Component
+public class LoginInfoWriter
+{
+    private static final Logger sys_user_logger = LoggerFactory.getLogger("sys-user");
+
+    private static final int MAX_BATCH_SIZE = 2000;
+
+    /** Column widths of sys_logininfor.user_name and msg */
+    private static final int USER_NAME_LENGTH = 50;
+
+    private static final int MSG_LENGTH = 255;
+
+    @Value("${serat.loginLog.queueCapacity:10000}")
+    private int queueCapacity;
+
+    @Value("${serat.loginLog.batchSize:200}")
+    private int batchSize;
+
+    @Value("${serat.loginLog.flushInterval:1000}")
+    private long flushInterval;
+
+    @Value("${serat.loginLog.coalesceWindow:10000}")
+    private long coalesceWindow;
+
+    @Value("${serat.loginLog.shedThreshold:0.8}")
+    private double shedThreshold;
+
+    @Autowired
+    private ISysLogininforService logininforService;
+
+    @Autowired
+    private ScheduledExecutorService scheduledExecutorService;
+
+    @Autowired
+    private AuditSpool auditSpool;
+
+    @Autowired
+    private IpLocationResolver ipLocationResolver;
+
+    @Autowired
+    private UserAgentCache userAgentCache;
+
+    private final ConcurrentHashMap<String, Failure> failures = new ConcurrentHashMap<>();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    private final LongAdder shed = new LongAdder();
+
+    private BatchWriter<Attempt> writer;
+
+    private ScheduledFuture<?> sweeper;
+
+    @PostConstruct
+    public void init()
+    {
+        writer = new BatchWriter<>("login-log", this::write, queueCapacity, Math.min(batchSize, MAX_BATCH_SIZE),
+                flushInterval, 0);
+        if (auditSpool.isEnabled())
+        {
+            writer.setOverflow(attempts -> auditSpool.spoolLogininfors(toRows(attempts, false)));
+        }
+        sweeper = scheduledExecutorService.scheduleWithFixedDelay(this::sweep, coalesceWindow, coalesceWindow,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records a login, logout or registration attempt made by the current request
+     */
+    public void record(final String username, final String status, final String message, final Object... args)
+    {
+        Attempt attempt = new Attempt(username, status, message, IpUtils.getIpAddr(),
+                ServletUtils.getRequest().getHeader("User-Agent"), args);
+        if (!Constants.LOGIN_FAIL.equals(status))
+        {
+            writer.submit(attempt);
+            return;
+        }
+        String key = attempt.ip + '\n' + username + '\n' + message;
+        Failure failure = failures.get(key);
+        if (failure != null && attempt.time - failure.first.time < coalesceWindow && failure.repeat())
+        {
+            coalesced.increment();
+            return;
+        }
+        if (writer.getFillRatio() >= shedThreshold)
+        {
+            shed.increment();
+            return;
+        }
+        Failure previous = failures.put(key, new Failure(attempt));
+        if (previous != null)
+        {
+            close(previous);
+        }
+        writer.submit(attempt);
+    }
+
+    /**
+     * Closes coalesce windows that have elapsed and queues a summary for each one that absorbed repeats
+     */
+    private void sweep()
+    {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, Failure> entry : failures.entrySet())
+        {
+            Failure failure = entry.getValue();
+            if (now - failure.first.time >= coalesceWindow && failures.remove(entry.getKey(), failure))
+            {
+                close(failure);
+            }
+        }
+    }
+
+    private void close(Failure failure)
+    {
+        int repeats = failure.close();
+        if (repeats > 0)
+        {
+            Attempt first = failure.first;
+            writer.submit(new Attempt(first.username, first.status,
+                    first.message + " (repeated " + repeats + " more times)", first.ip, first.userAgent, first.args));
+        }
+    }
+
+    private void write(List<Attempt> batch)
+    {
+        List<SysLogininfor> rows = toRows(batch, true);
+        if (!auditSpool.isDatabaseAvailable() && auditSpool.spoolLogininfors(rows))
+        {
+            return;
+        }
+        try
+        {
+            logininforService.insertLogininforBatch(rows);
+        }
+        catch (Exception e)
+        {
+            if (auditSpool.isUnavailable(e) && auditSpool.spoolLogininfors(rows))
+            {
+                sys_user_logger.warn("Database unavailable, spooled {} login records: {}", rows.size(), e.getMessage());
+                return;
+            }
+            // one bad row fails the whole statement; retry row by row so the rest still land
+            sys_user_logger.warn("Batch insert of {} login records failed, retrying individually: {}", rows.size(),
+                    e.getMessage());
+            int failed = 0;
+            for (SysLogininfor row : rows)
+            {
+                try
+                {
+                    logininforService.insertLogininfor(row);
+                }
+                catch (Exception ex)
+                {
+                    failed++;
+                    sys_user_logger.error("Failed to insert login record of {}: {}", row.getUserName(), ex.getMessage());
+                }
+            }
+            if (failed == rows.size())
+            {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Builds the rows for a batch; the location lookup and log line are skipped for overflow records
+     * converted on the caller's thread
+     */
+    private List<SysLogininfor> toRows(List<Attempt> batch, boolean resolve)
+    {
+        Map<String, String> locations = Collections.emptyMap();
+        if (resolve)
+        {
+            List<String> ips = new ArrayList<>(batch.size());
+            for (Attempt attempt : batch)
+            {
+                ips.add(StringUtils.nvl(attempt.ip, ""));
+            }
+            locations = ipLocationResolver.resolveAll(ips);
+        }
+        List<SysLogininfor> rows = new ArrayList<>(batch.size());
+        for (Attempt attempt : batch)
+        {
+            String address = "";
+            if (resolve)
+            {
+                address = locations.get(StringUtils.nvl(attempt.ip, ""));
+                StringBuilder s = new StringBuilder();
+                s.append(LogUtils.getBlock(attempt.ip));
+                s.append(address);
+                s.append(LogUtils.getBlock(attempt.username));
+                s.append(LogUtils.getBlock(attempt.status));
+                s.append(LogUtils.getBlock(attempt.message));
+                sys_user_logger.info(s.toString(), attempt.args);
+            }
+            UserAgentCache.Client client = userAgentCache.resolve(attempt.userAgent);
+            SysLogininfor logininfor = new SysLogininfor();
+            logininfor.setUserName(StringUtils.left(attempt.username, USER_NAME_LENGTH));
+            logininfor.setIpaddr(attempt.ip);
+            logininfor.setLoginLocation(address);
+            logininfor.setBrowser(client.getBrowser());
+            logininfor.setOs(client.getOs());
+            logininfor.setMsg(StringUtils.left(attempt.message, MSG_LENGTH));
+            logininfor.setLoginTime(new Date(attempt.time));
+            if (StringUtils.equalsAny(attempt.status, Constants.LOGIN_SUCCESS, Constants.LOGOUT, Constants.REGISTER))
+            {
+                logininfor.setStatus(Constants.SUCCESS);
+            }
+            else if (Constants.LOGIN_FAIL.equals(attempt.status))
+            {
+                logininfor.setStatus(Constants.FAIL);
+            }
+            rows.add(logininfor);
+        }
+        return rows;
+    }
+
+    /**
+     * Emits pending coalesce summaries and flushes the queue
+     */
+    public void shutdown()
+    {
+        if (sweeper != null)
+        {
+            sweeper.cancel(false);
+        }
+        for (String key : failures.keySet())
+        {
+            Failure failure = failures.remove(key);
+            if (failure != null)
+            {
+                close(failure);
+            }
+        }
+        writer.shutdown(10000);
+    }
+
+    public Map<String, Object> stats()
+    {
+        Map<String, Object> stats = new LinkedHashMap<>(writer.stats());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("shed", shed.sum());
+        stats.put("openWindows", failures.size());
+        stats.put("spool", auditSpool.stats());
+        stats.put("ipLocation", ipLocationResolver.stats());
+        stats.put("userAgent", userAgentCache.stats());
+        return stats;
+    }
+
+    private static final class Attempt
+    {
+        private final String username;
+
+        private final String status;
+
+        private final String message;
+
+        private final String ip;
+
+        private final String userAgent;
+
+        private final Object[] args;
+
+        private final long time = System.currentTimeMillis();
+
+        private Attempt(String username, String status, String message, String ip, String userAgent, Object[] args)
+        {
+            this.username = username;
+            this.status = status;
+            this.message = message;
+            this.ip = ip;
+            this.userAgent = userAgent;
+            this.args = args;
+        }
+    }
+
+    /**
+     * First failed attempt of a coalesce window plus the number of identical attempts folded into it.
+     * A negative count marks a closed window that no longer accepts repeats.
+     */
+    private static final class Failure
+    {
+        private final Attempt first;
+
+        private final AtomicInteger repeats = new AtomicInteger();
+
+        private Failure(Attempt first)
+        {
+            this.first = first;
+        }
+
+        private boolean repeat()
+        {
+            int current;
+            do
+            {
+                current = repeats.get();
+                if (current < 0)
+                {
+                    return false;
+                }
+            }
+            while (!repeats.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        private int close()
+        {
+            return Math.max(0, repeats.getAndSet(-1));
+        }
+    }
+}
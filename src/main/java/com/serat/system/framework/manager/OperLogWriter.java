@@ -0,0 +1,136 @@
+package com.serat.system.framework.manager;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.serat.system.common.core.queue.BatchWriter;
+import com.serat.system.common.utils.StringUtils;
+import com.serat.system.system.domain.SysOperLog;
+import com.serat.system.system.service.ISysOperLogService;
+
+/**
+ * Audit pipeline for operation logs: records are queued by the request thread and inserted in multi-row batches
+ */
+@Component
+public class OperLogWriter
+{
+    private static final Logger log = LoggerFactory.getLogger(OperLogWriter.class);
+
+    /** 16 bind parameters per row, well under the PostgreSQL limit of 32767 per statement */
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    @Value("${serat.operLog.queueCapacity:10000}")
+    private int queueCapacity;
+
+    @Value("${serat.operLog.batchSize:200}")
+    private int batchSize;
+
+    @Value("${serat.operLog.flushInterval:1000}")
+    private long flushInterval;
+
+    @Value("${serat.operLog.offerTimeout:0}")
+    private long offerTimeout;
+
+    @Autowired
+    private ISysOperLogService operLogService;
+
+    @Autowired
+    private AuditSpool auditSpool;
+
+    @Autowired
+    private IpLocationResolver ipLocationResolver;
+
+    private BatchWriter<SysOperLog> writer;
+
+    @PostConstruct
+    public void init()
+    {
+        writer = new BatchWriter<>("oper-log", this::write, queueCapacity, Math.min(batchSize, MAX_BATCH_SIZE),
+                flushInterval, offerTimeout);
+        if (auditSpool.isEnabled())
+        {
+            writer.setOverflow(auditSpool::spoolOperLogs);
+        }
+    }
+
+    public boolean submit(SysOperLog operLog)
+    {
+        if (StringUtils.isNull(operLog.getOperTime()))
+        {
+            operLog.setOperTime(new Date());
+        }
+        return writer.submit(operLog);
+    }
+
+    private void write(List<SysOperLog> batch)
+    {
+        List<String> ips = new ArrayList<>(batch.size());
+        for (SysOperLog operLog : batch)
+        {
+            ips.add(StringUtils.nvl(operLog.getOperIp(), ""));
+        }
+        Map<String, String> locations = ipLocationResolver.resolveAll(ips);
+        for (SysOperLog operLog : batch)
+        {
+            operLog.setOperLocation(locations.get(StringUtils.nvl(operLog.getOperIp(), "")));
+        }
+        if (!auditSpool.isDatabaseAvailable() && auditSpool.spoolOperLogs(batch))
+        {
+            return;
+        }
+        try
+        {
+            operLogService.insertOperlogBatch(batch);
+        }
+        catch (Exception e)
+        {
+            if (auditSpool.isUnavailable(e) && auditSpool.spoolOperLogs(batch))
+            {
+                log.warn("Database unavailable, spooled {} operation logs: {}", batch.size(), e.getMessage());
+                return;
+            }
+            // one bad row fails the whole statement; retry row by row so the rest still land
+            log.warn("Batch insert of {} operation logs failed, retrying individually: {}", batch.size(), e.getMessage());
+            int failed = 0;
+            for (SysOperLog operLog : batch)
+            {
+                try
+                {
+                    operLogService.insertOperlog(operLog);
+                }
+                catch (Exception ex)
+                {
+                    failed++;
+                    log.error("Failed to insert operation log {}: {}", operLog.getMethod(), ex.getMessage());
+                }
+            }
+            if (failed == batch.size())
+            {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Flushes queued records; anything submitted afterwards is written synchronously
+     */
+    public void shutdown()
+    {
+        writer.shutdown(10000);
+    }
+
+    public Map<String, Object> stats()
+    {
+        Map<String, Object> stats = new LinkedHashMap<>(writer.stats());
+        stats.put("spool", auditSpool.stats());
+        return stats;
+    }
+}
@@ -2,6 +2,7 @@ package com.serat.system.framework.manager;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.PreDestroy;
@@ -11,12 +12,63 @@ public class ShutdownManager
 {
     private static final Logger logger = LoggerFactory.getLogger("sys-user");
 
+    @Autowired
+    private OperLogWriter operLogWriter;
+
+    @Autowired
+    private LoginInfoWriter loginInfoWriter;
+
+    @Autowired
+    private AuditSpool auditSpool;
+
     @PreDestroy
     public void destroy()
     {
+        shutdownOperLogWriter();
+        shutdownLoginInfoWriter();
+        shutdownAuditSpool();
         shutdownAsyncManager();
     }
 
+    private void shutdownOperLogWriter()
+    {
+        try
+        {
+            logger.info("====Flushing the operation log queue====");
+            operLogWriter.shutdown();
+        }
+        catch (Exception e)
+        {
+            logger.error(e.getMessage(), e);
+        }
+    }
+
+    private void shutdownLoginInfoWriter()
+    {
+        try
+        {
+            logger.info("====Flushing the login record queue====");
+            loginInfoWriter.shutdown();
+        }
+        catch (Exception e)
+        {
+            logger.error(e.getMessage(), e);
+        }
+    }
+
+    private void shutdownAuditSpool()
+    {
+        try
+        {
+            logger.info("====Closing the audit spool====");
+            auditSpool.shutdown();
+        }
+        catch (Exception e)
+        {
+            logger.error(e.getMessage(), e);
+        }
+    }
+
     private void shutdownAsyncManager()
     {
         try
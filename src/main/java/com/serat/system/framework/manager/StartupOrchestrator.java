@@ -0,0 +1,113 @@
+package com.serat.system.framework.manager;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+import com.serat.system.framework.web.service.CacheWarmupService;
+import com.serat.system.framework.web.service.LoginUserIndex;
+import com.serat.system.system.service.ISysConfigService;
+
+/**
+ * Runs the startup warm-up tasks in parallel once the context is refreshed, instead of in @PostConstruct
+ * methods on the startup path. Until every task has finished this health indicator reports OUT_OF_SERVICE,
+ * which keeps /actuator/health/readiness "not ready". A failed task is logged and recorded but does not hold
+ * readiness back: the caches it would have filled are also loaded on demand.
+ */
+@Component
+public class StartupOrchestrator implements HealthIndicator
+{
+    private static final Logger log = LoggerFactory.getLogger(StartupOrchestrator.class);
+
+    @Autowired
+    private AsyncTaskExecutor threadPoolTaskExecutor;
+
+    @Autowired
+    private CacheWarmupService cacheWarmupService;
+
+    @Autowired
+    private ISysConfigService configService;
+
+    @Autowired
+    private IpRegionLoader ipRegionLoader;
+
+    @Autowired
+    private LoginUserIndex loginUserIndex;
+
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    /** Phase and task name to elapsed milliseconds, or the failure */
+    private final Map<String, Object> phases = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    private volatile boolean ready;
+
+    @EventListener
+    public void onContextRefreshed(ContextRefreshedEvent event)
+    {
+        if (event.getApplicationContext().getParent() != null || !started.compareAndSet(false, true))
+        {
+            return;
+        }
+        long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+        long start = System.currentTimeMillis();
+        phases.put("context", start - jvmStart);
+
+        Map<String, Runnable> tasks = new LinkedHashMap<>();
+        tasks.put("cacheWarmup", cacheWarmupService::warmUp);
+        tasks.put("configSnapshot", configService::loadingConfigSnapshot);
+        tasks.put("ipRegion", ipRegionLoader::reload);
+        tasks.put("loginIndexBackfill", loginUserIndex::backfill);
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>(tasks.size());
+        for (Map.Entry<String, Runnable> task : tasks.entrySet())
+        {
+            futures.add(CompletableFuture.runAsync(() -> run(task.getKey(), task.getValue()), threadPoolTaskExecutor));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).whenComplete((result, e) -> {
+            long end = System.currentTimeMillis();
+            phases.put("warmup", end - start);
+            phases.put("total", end - jvmStart);
+            ready = true;
+            log.info("Startup warm-up finished, ready {}ms after JVM start: {}", end - jvmStart, phases);
+        });
+    }
+
+    @Override
+    public Health health()
+    {
+        Map<String, Object> details;
+        synchronized (phases)
+        {
+            details = new LinkedHashMap<>(phases);
+        }
+        return (ready ? Health.up() : Health.outOfService()).withDetails(details).build();
+    }
+
+    private void run(String name, Runnable task)
+    {
+        long start = System.currentTimeMillis();
+        try
+        {
+            task.run();
+            phases.put(name, System.currentTimeMillis() - start);
+        }
+        catch (Exception e)
+        {
+            phases.put(name, "failed after " + (System.currentTimeMillis() - start) + "ms: " + e.getMessage());
+            log.error("Startup task {} failed", name, e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.serat.system.framework.manager;
+
+import java.time.Duration;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Logs virtual threads that stay pinned to their carrier (synchronized blocks, native frames) longer than the threshold
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor
+{
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final int MAX_FRAMES = 8;
+
+    @Value("${serat.virtualThreads.pinnedThreshold:20}")
+    private long thresholdMillis;
+
+    private RecordingStream stream;
+
+    @PostConstruct
+    public void start()
+    {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMillis)).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::report);
+        stream.startAsync();
+        logger.info("Virtual thread pinning monitor started, threshold {} ms", thresholdMillis);
+    }
+
+    private void report(RecordedEvent event)
+    {
+        StringBuilder s = new StringBuilder();
+        s.append("Virtual thread pinned for ").append(event.getDuration().toMillis()).append(" ms");
+        if (event.getStackTrace() != null)
+        {
+            int count = 0;
+            for (RecordedFrame frame : event.getStackTrace().getFrames())
+            {
+                if (count++ == MAX_FRAMES)
+                {
+                    break;
+                }
+                s.append("\n\tat ").append(frame.getMethod().getType().getName()).append('.')
+                        .append(frame.getMethod().getName()).append(':').append(frame.getLineNumber());
+            }
+        }
+        logger.warn(s.toString());
+    }
+
+    @PreDestroy
+    public void stop()
+    {
+        if (stream != null)
+        {
+            stream.close();
+        }
+    }
+}
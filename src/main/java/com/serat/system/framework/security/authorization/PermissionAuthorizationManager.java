@@ -0,0 +1,98 @@
+package com.serat.system.framework.security.authorization;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.MethodClassKey;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import com.serat.system.framework.web.service.PermissionService;
+
+/**
+ * Authorizes @PreAuthorize methods whose expression is a single @ss call by invoking PermissionService directly.
+ * Each handler method's expression is parsed once; anything else is evaluated through SpEL as before.
+ */
+public class PermissionAuthorizationManager implements AuthorizationManager<MethodInvocation>
+{
+    private static final Pattern SS_EXPRESSION = Pattern
+            .compile("^\\s*@ss\\.(hasPermi|lacksPermi|hasAnyPermi|hasRole|lacksRole|hasAnyRoles)\\(\\s*'([^']*)'\\s*\\)\\s*$");
+
+    private static final Predicate<PermissionService> SPEL = ss -> false;
+
+    private final Supplier<PermissionService> permissionService;
+
+    private final PreAuthorizeAuthorizationManager fallback = new PreAuthorizeAuthorizationManager();
+
+    private final Map<MethodClassKey, Predicate<PermissionService>> decisions = new ConcurrentHashMap<>();
+
+    public PermissionAuthorizationManager(Supplier<PermissionService> permissionService, MethodSecurityExpressionHandler expressionHandler)
+    {
+        this.permissionService = permissionService;
+        this.fallback.setExpressionHandler(expressionHandler);
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation mi)
+    {
+        Class<?> targetClass = mi.getThis() != null ? AopUtils.getTargetClass(mi.getThis()) : mi.getMethod().getDeclaringClass();
+        Predicate<PermissionService> decision = decisions.computeIfAbsent(new MethodClassKey(mi.getMethod(), targetClass),
+                key -> compile(mi.getMethod(), targetClass));
+        if (decision == SPEL)
+        {
+            return fallback.check(authentication, mi);
+        }
+        return new AuthorizationDecision(decision.test(permissionService.get()));
+    }
+
+    /**
+     * Returns the direct call for a recognised @ss expression, or SPEL when the expression has to be evaluated
+     */
+    private static Predicate<PermissionService> compile(Method method, Class<?> targetClass)
+    {
+        Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+        PreAuthorize preAuthorize = AnnotatedElementUtils.findMergedAnnotation(specificMethod, PreAuthorize.class);
+        if (preAuthorize == null)
+        {
+            preAuthorize = AnnotatedElementUtils.findMergedAnnotation(targetClass, PreAuthorize.class);
+        }
+        if (preAuthorize == null)
+        {
+            return SPEL;
+        }
+        Matcher matcher = SS_EXPRESSION.matcher(preAuthorize.value());
+        if (!matcher.matches())
+        {
+            return SPEL;
+        }
+        String argument = matcher.group(2);
+        switch (matcher.group(1))
+        {
+            case "hasPermi":
+                return ss -> ss.hasPermi(argument);
+            case "lacksPermi":
+                return ss -> ss.lacksPermi(argument);
+            case "hasAnyPermi":
+                return ss -> ss.hasAnyPermi(argument);
+            case "hasRole":
+                return ss -> ss.hasRole(argument);
+            case "lacksRole":
+                return ss -> ss.lacksRole(argument);
+            case "hasAnyRoles":
+                return ss -> ss.hasAnyRoles(argument);
+            default:
+                return SPEL;
+        }
+    }
+}
@@ -15,8 +15,7 @@ import com.serat.system.common.core.domain.dto.LoginUser;
 import com.serat.system.common.utils.MessageUtils;
 import com.serat.system.common.utils.ServletUtils;
 import com.serat.system.common.utils.StringUtils;
-import com.serat.system.framework.manager.AsyncManager;
-import com.serat.system.framework.manager.factory.AsyncFactory;
+import com.serat.system.framework.manager.LoginInfoWriter;
 import com.serat.system.framework.web.service.TokenService;
 
 @Configuration
@@ -25,6 +24,9 @@ public class LogoutSuccessHandlerImpl implements LogoutSuccessHandler
     @Autowired
     private TokenService tokenService;
 
+    @Autowired
+    private LoginInfoWriter loginInfoWriter;
+
     @Override
     public void onLogoutSuccess(HttpServletRequest request, HttpServletResponse response, Authentication authentication)
             throws IOException, ServletException
@@ -34,7 +36,7 @@ public class LogoutSuccessHandlerImpl implements LogoutSuccessHandler
         {
             String userName = loginUser.getUsername();
             tokenService.delLoginUser(loginUser.getToken());
-            AsyncManager.me().execute(AsyncFactory.recordLogininfor(userName, Constants.LOGOUT, MessageUtils.message("user.logout.success")));
+            loginInfoWriter.record(userName, Constants.LOGOUT, MessageUtils.message("user.logout.success"));
         }
         ServletUtils.renderString(response, JSON.toJSONString(AjaxResult.success(MessageUtils.message("user.logout.success"))));
     }
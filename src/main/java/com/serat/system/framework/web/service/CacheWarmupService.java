@@ -0,0 +1,73 @@
+package com.serat.system.framework.web.service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import com.serat.system.common.constant.CacheConstants;
+import com.serat.system.system.mapper.SysTableStatsMapper;
+import com.serat.system.system.service.ISysConfigService;
+import com.serat.system.system.service.ISysDictTypeService;
+
+/**
+ * Fills the parameter and dictionary caches in redis at startup, run by the StartupOrchestrator. The values are written in pipelined batches,
+ * and not at all when the marker in redis shows they were written from the same table contents.
+ * Clearing either cache drops the marker, so the next startup writes them again.
+ */
+@Component
+public class CacheWarmupService
+{
+    private static final Logger log = LoggerFactory.getLogger(CacheWarmupService.class);
+
+    @Autowired
+    private ISysConfigService configService;
+
+    @Autowired
+    private ISysDictTypeService dictTypeService;
+
+    @Autowired
+    private SysTableStatsMapper tableStatsMapper;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    private volatile Map<String, Object> report = Collections.emptyMap();
+
+    public void warmUp()
+    {
+        long start = System.currentTimeMillis();
+        String fingerprint = tableStatsMapper.selectCacheFingerprint();
+        boolean current = fingerprint != null
+                && fingerprint.equals(stringRedisTemplate.opsForValue().get(CacheConstants.SYS_CACHE_WARM_KEY));
+        if (!current)
+        {
+            configService.loadingConfigCache();
+            dictTypeService.loadingDictCache();
+            if (fingerprint != null)
+            {
+                stringRedisTemplate.opsForValue().set(CacheConstants.SYS_CACHE_WARM_KEY, fingerprint);
+            }
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("skipped", current);
+        result.put("fingerprint", fingerprint);
+        result.put("elapsedMillis", elapsed);
+        result.put("finishedAt", System.currentTimeMillis());
+        report = Collections.unmodifiableMap(result);
+        log.info(current ? "Parameter and dictionary caches are current, warm-up skipped in {}ms"
+                : "Parameter and dictionary caches warmed up in {}ms", elapsed);
+    }
+
+    /**
+     * Outcome of the last warm-up
+     */
+    public Map<String, Object> report()
+    {
+        return report;
+    }
+}
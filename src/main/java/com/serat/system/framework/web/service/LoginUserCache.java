@@ -0,0 +1,147 @@
+package com.serat.system.framework.web.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import com.serat.system.common.constant.CacheConstants;
+import com.serat.system.common.core.cache.LocalCache;
+import com.serat.system.common.core.domain.dto.LoginUser;
+import com.serat.system.common.utils.StringUtils;
+import com.serat.system.common.utils.uuid.IdUtils;
+
+/**
+ * Near cache of deserialized login users keyed by token uuid, invalidated across nodes through redis pub/sub.
+ * The cached instance is private: callers put and get copies, so a request changing its user (profile updates,
+ * location fill-in) cannot be seen half-done by concurrent requests or by audit capture on another thread.
+ */
+@Component
+public class LoginUserCache implements MessageListener
+{
+    private static final Logger log = LoggerFactory.getLogger(LoginUserCache.class);
+
+    private static final String SEPARATOR = "|";
+
+    private static final String ALL = "*";
+
+    private final String nodeId = IdUtils.fastSimpleUUID();
+
+    @Value("${token.localCache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${token.localCache.maxSize:10000}")
+    private int maxSize;
+
+    @Value("${token.localCache.ttl:30}")
+    private int ttlSeconds;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    private LocalCache<String, LoginUser> cache;
+
+    @PostConstruct
+    public void init()
+    {
+        cache = new LocalCache<>(maxSize, ttlSeconds * 1000L);
+        listenerContainer.addMessageListener(this, new ChannelTopic(CacheConstants.LOGIN_TOKEN_INVALIDATE_TOPIC));
+    }
+
+    public LoginUser get(String uuid)
+    {
+        LoginUser loginUser = enabled ? cache.get(uuid) : null;
+        return loginUser == null ? null : loginUser.copy();
+    }
+
+    /**
+     * Caches the user until the local ttl elapses or the session expires, whichever comes first
+     */
+    public void put(String uuid, LoginUser loginUser)
+    {
+        if (!enabled || StringUtils.isNull(loginUser))
+        {
+            return;
+        }
+        long ttl = StringUtils.isNull(loginUser.getExpireTime()) ? Long.MAX_VALUE
+                : loginUser.getExpireTime() - System.currentTimeMillis();
+        cache.put(uuid, loginUser.copy(), ttl);
+    }
+
+    /**
+     * Drops the entry locally and tells the other nodes to do the same
+     */
+    public void invalidate(String uuid)
+    {
+        cache.invalidate(uuid);
+        publish(uuid);
+    }
+
+    /**
+     * Drops the entry on this node only, for changes other nodes pick up when their entry's local ttl elapses
+     */
+    public void evict(String uuid)
+    {
+        cache.invalidate(uuid);
+    }
+
+    public void invalidateAll()
+    {
+        cache.invalidateAll();
+        publish(ALL);
+    }
+
+    public Map<String, Object> stats()
+    {
+        Map<String, Object> stats = cache.stats();
+        stats.put("enabled", enabled);
+        return stats;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern)
+    {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int index = body.indexOf(SEPARATOR);
+        if (index < 0 || nodeId.equals(body.substring(0, index)))
+        {
+            return;
+        }
+        String uuid = body.substring(index + 1);
+        if (ALL.equals(uuid))
+        {
+            cache.invalidateAll();
+        }
+        else
+        {
+            cache.invalidate(uuid);
+        }
+    }
+
+    private void publish(String uuid)
+    {
+        if (!enabled)
+        {
+            return;
+        }
+        try
+        {
+            stringRedisTemplate.convertAndSend(CacheConstants.LOGIN_TOKEN_INVALIDATE_TOPIC, nodeId + SEPARATOR + uuid);
+        }
+        catch (Exception e)
+        {
+            log.error("Failed to publish login user invalidation for '{}': {}", uuid, e.getMessage());
+        }
+    }
+}
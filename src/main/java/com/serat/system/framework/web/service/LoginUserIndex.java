@@ -0,0 +1,197 @@
+package com.serat.system.framework.web.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import com.serat.system.common.constant.CacheConstants;
+import com.serat.system.common.core.domain.dto.LoginUser;
+import com.serat.system.common.core.redis.RedisCache;
+import com.serat.system.common.utils.StringUtils;
+
+/**
+ * Secondary indexes over login sessions: a sorted set of token uuids scored by session expiry, plus per-user and
+ * per-ip sets. Expiry follows the last login or refresh, so the score order is also the most recent login order.
+ * Expired members are cut from the sorted set on every write and read; sessions deleted without their index entries
+ * are pruned by the readers that find them missing.
+ */
+@Component
+public class LoginUserIndex
+{
+    private static final String TIME_KEY = CacheConstants.LOGIN_TOKEN_INDEX_KEY + "time";
+
+    private static final String USER_KEY = CacheConstants.LOGIN_TOKEN_INDEX_KEY + "user:";
+
+    private static final String IP_KEY = CacheConstants.LOGIN_TOKEN_INDEX_KEY + "ip:";
+
+    /** Held while sessions created before the index existed are still alive, so only one node backfills them */
+    private static final String BACKFILL_KEY = CacheConstants.LOGIN_TOKEN_INDEX_KEY + "backfill";
+
+    @Value("${token.expireTime}")
+    private int expireTime;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisCache redisCache;
+
+    public void add(LoginUser loginUser)
+    {
+        addAll(Collections.singletonList(loginUser));
+    }
+
+    /**
+     * Indexes the sessions, or moves their entries to the new expiry, in one pipeline
+     */
+    public void addAll(final Collection<LoginUser> loginUsers)
+    {
+        if (loginUsers.isEmpty())
+        {
+            return;
+        }
+        final long seconds = expireTime * 60L;
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (LoginUser loginUser : loginUsers)
+            {
+                conn.zAdd(TIME_KEY, loginUser.getExpireTime(), loginUser.getToken());
+                for (String key : indexKeys(loginUser))
+                {
+                    conn.sAdd(key, loginUser.getToken());
+                    conn.expire(key, seconds);
+                }
+            }
+            conn.zRemRangeByScore(TIME_KEY, Double.NEGATIVE_INFINITY, System.currentTimeMillis());
+            return null;
+        });
+    }
+
+    /**
+     * Indexes sessions stored before the index existed; they are otherwise missing from the online list and from
+     * force logout until they expire. Runs on one node only, once per session lifetime.
+     */
+    public void backfill()
+    {
+        Boolean claimed = stringRedisTemplate.opsForValue().setIfAbsent(BACKFILL_KEY, "1", expireTime, TimeUnit.MINUTES);
+        if (!Boolean.TRUE.equals(claimed))
+        {
+            return;
+        }
+        redisCache.scan(CacheConstants.LOGIN_TOKEN_KEY + "*", keys -> {
+            List<LoginUser> loginUsers = new ArrayList<>(redisCache.getMultiCacheObject(keys, LoginUser.class));
+            loginUsers.removeAll(Collections.singleton(null));
+            addAll(loginUsers);
+        });
+    }
+
+    public void remove(String token, LoginUser loginUser)
+    {
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            conn.zRem(TIME_KEY, token);
+            if (StringUtils.isNotNull(loginUser))
+            {
+                for (String key : indexKeys(loginUser))
+                {
+                    conn.sRem(key, token);
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Drops tokens whose session has already expired from the time index and from the sets they were found in
+     */
+    public void prune(Collection<String> tokens, String ipaddr, String userName)
+    {
+        if (tokens.isEmpty())
+        {
+            return;
+        }
+        final String[] members = tokens.toArray(new String[0]);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            conn.zRem(TIME_KEY, members);
+            if (StringUtils.isNotEmpty(ipaddr))
+            {
+                conn.sRem(IP_KEY + ipaddr, members);
+            }
+            if (StringUtils.isNotEmpty(userName))
+            {
+                conn.sRem(USER_KEY + userName, members);
+            }
+            return null;
+        });
+    }
+
+    public long count()
+    {
+        pruneExpired();
+        Long count = stringRedisTemplate.opsForZSet().zCard(TIME_KEY);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Token uuids ordered by most recent login; a negative limit returns everything from the offset
+     */
+    public List<String> page(long offset, long limit)
+    {
+        pruneExpired();
+        long end = limit < 0 ? -1 : offset + limit - 1;
+        Set<String> tokens = stringRedisTemplate.opsForZSet().reverseRange(TIME_KEY, offset, end);
+        return tokens == null ? Collections.emptyList() : new ArrayList<>(tokens);
+    }
+
+    private void pruneExpired()
+    {
+        stringRedisTemplate.opsForZSet().removeRangeByScore(TIME_KEY, Double.NEGATIVE_INFINITY, System.currentTimeMillis());
+    }
+
+    /**
+     * Token uuids matching the given user name and/or ip address exactly
+     */
+    public Set<String> find(String ipaddr, String userName)
+    {
+        Set<String> tokens;
+        if (StringUtils.isNotEmpty(ipaddr) && StringUtils.isNotEmpty(userName))
+        {
+            tokens = stringRedisTemplate.opsForSet().intersect(USER_KEY + userName, IP_KEY + ipaddr);
+        }
+        else if (StringUtils.isNotEmpty(ipaddr))
+        {
+            tokens = stringRedisTemplate.opsForSet().members(IP_KEY + ipaddr);
+        }
+        else
+        {
+            tokens = stringRedisTemplate.opsForSet().members(USER_KEY + userName);
+        }
+        return tokens == null ? Collections.emptySet() : tokens;
+    }
+
+    /**
+     * Index keys whose ttl has to follow the session's sliding expiry
+     */
+    public List<String> indexKeys(LoginUser loginUser)
+    {
+        List<String> keys = new ArrayList<>(2);
+        if (StringUtils.isNotEmpty(loginUser.getIpaddr()))
+        {
+            keys.add(IP_KEY + loginUser.getIpaddr());
+        }
+        if (StringUtils.isNotNull(loginUser.getUser()) && StringUtils.isNotEmpty(loginUser.getUsername()))
+        {
+            keys.add(USER_KEY + loginUser.getUsername());
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,311 @@
+package com.serat.system.framework.web.service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import com.serat.system.common.constant.CacheConstants;
+import com.serat.system.common.constant.Constants;
+import com.serat.system.common.core.domain.dto.LoginUser;
+import com.serat.system.common.utils.StringUtils;
+import com.serat.system.system.service.ISysMenuService;
+
+/**
+ * Interns every menu permission string to a dense integer id so a permission check is a single bit test.
+ * Ids are allocated through redis and never reused, so the bitsets stored in sessions mean the same on every node.
+ */
+@Component
+public class PermissionRegistry implements MessageListener
+{
+    private static final String IDS_KEY = CacheConstants.SYS_PERM_KEY + "ids";
+
+    private static final String SEQ_KEY = CacheConstants.SYS_PERM_KEY + "seq";
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired
+    private ISysMenuService menuService;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+    private final Map<String, int[]> anyIds = new ConcurrentHashMap<>();
+
+    private volatile String[] names = new String[0];
+
+    private volatile int allId = -1;
+
+    @PostConstruct
+    public void init()
+    {
+        reload();
+        register(Constants.ALL_PERMISSION);
+        register(menuService.selectMenuPerms());
+        listenerContainer.addMessageListener(this, new ChannelTopic(CacheConstants.SYS_PERM_TOPIC));
+    }
+
+    /**
+     * Reloads every id allocated so far, including those registered by other nodes
+     */
+    public void reload()
+    {
+        HashOperations<String, String, String> hash = stringRedisTemplate.opsForHash();
+        Map<String, String> entries = hash.entries(IDS_KEY);
+        lock.lock();
+        try
+        {
+            for (Map.Entry<String, String> entry : entries.entrySet())
+            {
+                put(entry.getKey(), Integer.parseInt(entry.getValue()));
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    public void register(Collection<String> perms)
+    {
+        for (String perm : perms)
+        {
+            register(perm);
+        }
+    }
+
+    /**
+     * Returns the id of the permission, allocating one in redis if no node has seen it yet
+     */
+    public int register(String perm)
+    {
+        String name = StringUtils.trim(perm);
+        if (StringUtils.isEmpty(name))
+        {
+            return -1;
+        }
+        Integer id = ids.get(name);
+        if (id != null)
+        {
+            return id;
+        }
+        HashOperations<String, String, String> hash = stringRedisTemplate.opsForHash();
+        String existing = hash.get(IDS_KEY, name);
+        if (existing == null)
+        {
+            long next = stringRedisTemplate.opsForValue().increment(SEQ_KEY) - 1;
+            if (hash.putIfAbsent(IDS_KEY, name, String.valueOf(next)))
+            {
+                existing = String.valueOf(next);
+                stringRedisTemplate.convertAndSend(CacheConstants.SYS_PERM_TOPIC, name);
+            }
+            else
+            {
+                existing = hash.get(IDS_KEY, name);
+            }
+        }
+        lock.lock();
+        try
+        {
+            put(name, Integer.parseInt(existing));
+        }
+        finally
+        {
+            lock.unlock();
+        }
+        return ids.get(name);
+    }
+
+    /**
+     * Id of a known permission, or -1 if no menu declares it
+     */
+    public int idOf(String perm)
+    {
+        Integer id = ids.get(perm);
+        if (id == null)
+        {
+            id = ids.get(StringUtils.trim(perm));
+        }
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the canonical instances of the given permission strings, registering any new ones
+     */
+    public Set<String> intern(Set<String> perms)
+    {
+        Set<String> interned = new HashSet<>(perms.size());
+        for (String perm : perms)
+        {
+            int id = register(perm);
+            interned.add(id < 0 ? perm : names[id]);
+        }
+        return interned;
+    }
+
+    public long[] toBits(Set<String> perms)
+    {
+        if (perms == null)
+        {
+            return null;
+        }
+        long[] bits = new long[1];
+        for (String perm : perms)
+        {
+            int id = register(perm);
+            if (id >= 0)
+            {
+                if ((id >> 6) >= bits.length)
+                {
+                    bits = Arrays.copyOf(bits, (id >> 6) + 1);
+                }
+                bits[id >> 6] |= 1L << id;
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Resolves the ids against the current names, reloading the registry once if any id is not known yet
+     */
+    public Set<String> toNames(long[] bits)
+    {
+        Set<String> perms = new HashSet<>();
+        if (!collectNames(bits, perms))
+        {
+            reload();
+            perms.clear();
+            collectNames(bits, perms);
+        }
+        return perms;
+    }
+
+    /**
+     * Adds the names of the known ids; false if any id was unknown
+     */
+    private boolean collectNames(long[] bits, Set<String> perms)
+    {
+        String[] current = names;
+        boolean complete = true;
+        for (int word = 0; word < bits.length; word++)
+        {
+            long value = bits[word];
+            while (value != 0)
+            {
+                int id = (word << 6) + Long.numberOfTrailingZeros(value);
+                value &= value - 1;
+                if (id < current.length && current[id] != null)
+                {
+                    perms.add(current[id]);
+                }
+                else
+                {
+                    complete = false;
+                }
+            }
+        }
+        return complete;
+    }
+
+    /**
+     * Fills in whichever of the permission set and the permission bitset the session is missing
+     */
+    public void resolve(LoginUser loginUser)
+    {
+        if (StringUtils.isNull(loginUser))
+        {
+            return;
+        }
+        if (loginUser.getPermissionBits() == null && loginUser.getPermissions() != null)
+        {
+            loginUser.setPermissionBits(toBits(loginUser.getPermissions()));
+        }
+        else if (loginUser.getPermissions() == null && loginUser.getPermissionBits() != null)
+        {
+            long[] bits = loginUser.getPermissionBits();
+            loginUser.setPermissions(toNames(bits));
+            loginUser.setPermissionBits(bits);
+        }
+    }
+
+    public boolean hasPermission(long[] bits, String perm)
+    {
+        return test(bits, allId) || test(bits, idOf(perm));
+    }
+
+    /**
+     * Checks a comma separated permission list; the parsed ids are cached per list
+     */
+    public boolean hasAnyPermission(long[] bits, String perms)
+    {
+        if (test(bits, allId))
+        {
+            return true;
+        }
+        int[] candidates = anyIds.get(perms);
+        if (candidates == null)
+        {
+            candidates = Arrays.stream(perms.split(Constants.PERMISSION_DELIMETER)).mapToInt(this::idOf).toArray();
+            anyIds.put(perms, candidates);
+        }
+        for (int id : candidates)
+        {
+            if (test(bits, id))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern)
+    {
+        reload();
+    }
+
+    private static boolean test(long[] bits, int id)
+    {
+        return id >= 0 && (id >> 6) < bits.length && (bits[id >> 6] & (1L << id)) != 0;
+    }
+
+    /**
+     * Caller must hold the lock
+     */
+    private void put(String name, int id)
+    {
+        if (ids.containsKey(name))
+        {
+            return;
+        }
+        String[] current = names;
+        if (id >= current.length)
+        {
+            current = Arrays.copyOf(current, Math.max(id + 1, current.length * 2));
+        }
+        current[id] = name;
+        names = current;
+        ids.put(name, id);
+        if (Constants.ALL_PERMISSION.equals(name))
+        {
+            allId = id;
+        }
+        anyIds.clear();
+    }
+}
@@ -6,27 +6,29 @@ import com.serat.system.common.core.domain.dto.LoginUser;
 import com.serat.system.common.utils.SecurityUtils;
 import com.serat.system.common.utils.StringUtils;
 import com.serat.system.framework.security.context.PermissionContextHolder;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 
-import java.util.Set;
-
 @Service("ss")
 public class PermissionService
 {
+    @Autowired
+    private PermissionRegistry permissionRegistry;
+
     public boolean hasPermi(String permission)
     {
         if (StringUtils.isEmpty(permission))
         {
             return false;
         }
-        LoginUser loginUser = SecurityUtils.getLoginUser();
-        if (StringUtils.isNull(loginUser) || CollectionUtils.isEmpty(loginUser.getPermissions()))
+        long[] bits = getPermissionBits();
+        if (bits == null)
         {
             return false;
         }
         PermissionContextHolder.setContext(permission);
-        return hasPermissions(loginUser.getPermissions(), permission);
+        return permissionRegistry.hasPermission(bits, permission);
     }
 
     public boolean lacksPermi(String permission)
@@ -40,21 +42,13 @@ public class PermissionService
         {
             return false;
         }
-        LoginUser loginUser = SecurityUtils.getLoginUser();
-        if (StringUtils.isNull(loginUser) || CollectionUtils.isEmpty(loginUser.getPermissions()))
+        long[] bits = getPermissionBits();
+        if (bits == null)
         {
             return false;
         }
         PermissionContextHolder.setContext(permissions);
-        Set<String> authorities = loginUser.getPermissions();
-        for (String permission : permissions.split(Constants.PERMISSION_DELIMETER))
-        {
-            if (permission != null && hasPermissions(authorities, permission))
-            {
-                return true;
-            }
-        }
-        return false;
+        return permissionRegistry.hasAnyPermission(bits, permissions);
     }
 
     public boolean hasRole(String role)
@@ -105,8 +99,14 @@ public class PermissionService
         return false;
     }
 
-    private boolean hasPermissions(Set<String> permissions, String permission)
+    private long[] getPermissionBits()
     {
-        return permissions.contains(Constants.ALL_PERMISSION) || permissions.contains(StringUtils.trim(permission));
+        LoginUser loginUser = SecurityUtils.getLoginUser();
+        if (StringUtils.isNull(loginUser))
+        {
+            return null;
+        }
+        permissionRegistry.resolve(loginUser);
+        return loginUser.getPermissionBits();
     }
 }
@@ -23,6 +23,9 @@ public class SysPermissionService
     @Autowired
     private ISysMenuService menuService;
 
+    @Autowired
+    private PermissionRegistry permissionRegistry;
+
     public Set<String> getRolePermission(SysUser user)
     {
         Set<String> roles = new HashSet<String>();
@@ -53,7 +56,7 @@ public class SysPermissionService
                 {
                     if (StringUtils.equals(role.getStatus(), UserConstants.ROLE_NORMAL))
                     {
-                        Set<String> rolePerms = menuService.selectMenuPermsByRoleId(role.getRoleId());
+                        Set<String> rolePerms = permissionRegistry.intern(menuService.selectMenuPermsByRoleId(role.getRoleId()));
                         role.setPermissions(rolePerms);
                         perms.addAll(rolePerms);
                     }
@@ -61,7 +64,7 @@ public class SysPermissionService
             }
             else
             {
-                perms.addAll(menuService.selectMenuPermsByUserId(user.getUserId()));
+                perms.addAll(permissionRegistry.intern(menuService.selectMenuPermsByUserId(user.getUserId())));
             }
         }
         return perms;
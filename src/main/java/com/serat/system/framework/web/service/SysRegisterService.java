@@ -11,8 +11,7 @@ import com.serat.system.common.exception.user.CaptchaExpireException;
 import com.serat.system.common.utils.MessageUtils;
 import com.serat.system.common.utils.SecurityUtils;
 import com.serat.system.common.utils.StringUtils;
-import com.serat.system.framework.manager.AsyncManager;
-import com.serat.system.framework.manager.factory.AsyncFactory;
+import com.serat.system.framework.manager.LoginInfoWriter;
 import com.serat.system.system.service.ISysConfigService;
 import com.serat.system.system.service.ISysUserService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -30,6 +29,9 @@ public class SysRegisterService
     @Autowired
     private RedisCache redisCache;
 
+    @Autowired
+    private LoginInfoWriter loginInfoWriter;
+
     public String register(RegisterDto registerBody)
     {
         String msg = "", username = registerBody.getUsername(), password = registerBody.getPassword();
@@ -66,7 +68,7 @@ public class SysRegisterService
             }
             else
             {
-                AsyncManager.me().execute(AsyncFactory.recordLogininfor(username, Constants.REGISTER, MessageUtils.message("user.register.success")));
+                loginInfoWriter.record(username, Constants.REGISTER, MessageUtils.message("user.register.success"));
             }
         }
         return msg;
@@ -74,7 +76,7 @@ public class SysRegisterService
 
     public void validateCaptcha(String username, String code, String uuid)
     {
-        String verifyKey = CacheConstants.CAPTCHA_CODE_KEY + StringUtils.nvl(uuid, "");
+        String verifyKey = redisCache.namespaceKey(CacheConstants.CAPTCHA_CODE_KEY, StringUtils.nvl(uuid, ""));
         String captcha = redisCache.getCacheObject(verifyKey);
         redisCache.deleteObject(verifyKey);
         if (captcha == null)
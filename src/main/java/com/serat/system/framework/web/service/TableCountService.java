@@ -0,0 +1,182 @@
+package com.serat.system.framework.web.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import com.serat.system.common.constant.CacheConstants;
+import com.serat.system.common.core.cache.LocalCache;
+import com.serat.system.common.core.page.TableCount;
+import com.serat.system.common.core.page.TableSupport;
+import com.serat.system.common.utils.SecurityUtils;
+import com.serat.system.common.utils.ServletUtils;
+import com.serat.system.common.utils.StringUtils;
+import com.serat.system.common.utils.uuid.IdUtils;
+import com.serat.system.system.mapper.SysTableStatsMapper;
+
+/**
+ * Count strategy for paged lists. Unfiltered lists of large tables report the planner's row estimate;
+ * other exact counts are cached per table and normalized filter for a short ttl.
+ * Every write to a table moves it to a new generation, so counts cached before the write are no longer found;
+ * the write is announced over redis pub/sub so the other nodes move the table on as well.
+ */
+@Component
+public class TableCountService implements MessageListener
+{
+    private static final Logger log = LoggerFactory.getLogger(TableCountService.class);
+
+    private static final String SEPARATOR = "|";
+
+    private static final Set<String> PAGING_PARAMS = new HashSet<>(Arrays.asList(TableSupport.PAGE_NUM,
+            TableSupport.PAGE_SIZE, TableSupport.ORDER_BY_COLUMN, TableSupport.IS_ASC, TableSupport.REASONABLE,
+            TableSupport.CURSOR, TableSupport.AFTER));
+
+    @Value("${serat.count.cacheTtl:30}")
+    private int cacheTtl;
+
+    @Value("${serat.count.cacheSize:1000}")
+    private int cacheSize;
+
+    @Value("${serat.count.estimateThreshold:100000}")
+    private long estimateThreshold;
+
+    @Autowired
+    private SysTableStatsMapper tableStatsMapper;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    private final String nodeId = IdUtils.fastSimpleUUID();
+
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    private LocalCache<String, Long> counts;
+
+    private LocalCache<String, Long> estimates;
+
+    @PostConstruct
+    public void init()
+    {
+        counts = new LocalCache<>(cacheSize, TimeUnit.SECONDS.toMillis(cacheTtl));
+        estimates = new LocalCache<>(64, TimeUnit.MINUTES.toMillis(1));
+        listenerContainer.addMessageListener(this, new ChannelTopic(CacheConstants.SYS_COUNT_TOPIC));
+    }
+
+    /**
+     * Decides the total for a list of the table filtered by the current request's parameters
+     *
+     * @param dataScoped whether the list is restricted by @DataScope, making the count depend on the user
+     */
+    public TableCount lookup(String table, boolean dataScoped)
+    {
+        String filter = filterKey(dataScoped);
+        if (filter.isEmpty())
+        {
+            long estimate = estimate(table);
+            if (estimate >= estimateThreshold)
+            {
+                return TableCount.estimated(estimate);
+            }
+        }
+        final String key = table + '#' + generation(table).get() + '?' + filter;
+        Long total = counts.get(key);
+        if (total != null)
+        {
+            return TableCount.exact(total);
+        }
+        return TableCount.unresolved(counted -> counts.put(key, counted));
+    }
+
+    /**
+     * Called after any insert, update or delete on the table
+     */
+    public void invalidate(String table)
+    {
+        generation(table).incrementAndGet();
+        try
+        {
+            stringRedisTemplate.convertAndSend(CacheConstants.SYS_COUNT_TOPIC, nodeId + SEPARATOR + table);
+        }
+        catch (Exception e)
+        {
+            log.error("Failed to publish count invalidation for '{}': {}", table, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern)
+    {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int index = body.indexOf(SEPARATOR);
+        if (index < 0 || nodeId.equals(body.substring(0, index)))
+        {
+            return;
+        }
+        generation(body.substring(index + 1)).incrementAndGet();
+    }
+
+    private AtomicLong generation(String table)
+    {
+        return generations.computeIfAbsent(table, t -> new AtomicLong());
+    }
+
+    private long estimate(String table)
+    {
+        Long estimate = estimates.get(table);
+        if (estimate == null)
+        {
+            estimate = StringUtils.nvl(tableStatsMapper.selectEstimatedRows(table), 0L);
+            estimates.put(table, estimate);
+        }
+        return estimate;
+    }
+
+    /**
+     * Request parameters other than paging ones, sorted, with empty values dropped
+     */
+    private String filterKey(boolean dataScoped)
+    {
+        Map<String, String> filters = new TreeMap<>();
+        for (Map.Entry<String, String[]> entry : ServletUtils.getRequest().getParameterMap().entrySet())
+        {
+            String value = String.join(",", entry.getValue());
+            if (!PAGING_PARAMS.contains(entry.getKey()) && StringUtils.isNotEmpty(value))
+            {
+                filters.put(entry.getKey(), value);
+            }
+        }
+        StringBuilder key = new StringBuilder();
+        if (dataScoped)
+        {
+            Long userId = SecurityUtils.getUserId();
+            if (!SecurityUtils.isAdmin(userId))
+            {
+                key.append("@").append(userId);
+            }
+        }
+        for (Map.Entry<String, String> filter : filters.entrySet())
+        {
+            key.append('&').append(filter.getKey()).append('=').append(filter.getValue());
+        }
+        return key.toString();
+    }
+}
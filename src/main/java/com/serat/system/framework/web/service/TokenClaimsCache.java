@@ -0,0 +1,64 @@
+package com.serat.system.framework.web.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import com.serat.system.common.core.cache.LocalCache;
+import com.serat.system.common.exception.UtilException;
+
+/**
+ * Maps the SHA-256 digest of an already verified jwt to its login uuid claim, so the raw token is never retained
+ */
+public class TokenClaimsCache
+{
+    private static final MessageDigest PROTOTYPE;
+
+    static
+    {
+        try
+        {
+            PROTOTYPE = MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new UtilException(e);
+        }
+    }
+
+    private final LocalCache<ByteBuffer, String> cache;
+
+    public TokenClaimsCache(int maxSize, long ttlMillis)
+    {
+        this.cache = new LocalCache<>(maxSize, ttlMillis);
+    }
+
+    public String get(String token)
+    {
+        return cache.get(digest(token));
+    }
+
+    public void put(String token, String uuid)
+    {
+        cache.put(digest(token), uuid);
+    }
+
+    public Map<String, Object> stats()
+    {
+        return cache.stats();
+    }
+
+    private static ByteBuffer digest(String token)
+    {
+        try
+        {
+            MessageDigest md = (MessageDigest) PROTOTYPE.clone();
+            return ByteBuffer.wrap(md.digest(token.getBytes(StandardCharsets.UTF_8)));
+        }
+        catch (CloneNotSupportedException e)
+        {
+            throw new UtilException(e);
+        }
+    }
+}
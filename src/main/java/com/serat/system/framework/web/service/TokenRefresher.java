@@ -0,0 +1,190 @@
+package com.serat.system.framework.web.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.serat.system.common.constant.CacheConstants;
+import com.serat.system.common.core.domain.dto.LoginUser;
+import com.serat.system.common.core.redis.RedisCache;
+
+/**
+ * Extends sessions off the request thread, at most once per token per window. Each batch reads the stored sessions,
+ * moves their login and expire times on and writes them back with the new ttl, so the stored expireTime matches the
+ * redis ttl; their index entries are moved to the new expiry in another pipeline. The write only happens while the
+ * session is unchanged since the read: a session saved in between by the request path keeps that save, and is
+ * extended again in a later window.
+ */
+@Component
+public class TokenRefresher
+{
+    private static final Logger log = LoggerFactory.getLogger(TokenRefresher.class);
+
+    @Value("${token.expireTime}")
+    private int expireTime;
+
+    @Value("${token.refresh.window:60}")
+    private int windowSeconds;
+
+    @Value("${token.refresh.batchSize:100}")
+    private int batchSize;
+
+    @Value("${token.refresh.queueCapacity:10000}")
+    private int queueCapacity;
+
+    @Autowired
+    private RedisCache redisCache;
+
+    @Autowired
+    private LoginUserIndex loginUserIndex;
+
+    @Autowired
+    private LoginUserCache loginUserCache;
+
+    private final ConcurrentHashMap<String, Long> refreshed = new ConcurrentHashMap<>();
+
+    private BlockingQueue<String> queue;
+
+    private Thread worker;
+
+    private volatile boolean running = true;
+
+    private long lastSweep;
+
+    @PostConstruct
+    public void init()
+    {
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        worker = new BasicThreadFactory.Builder().namingPattern("token-refresh-%d").daemon(true).build()
+                .newThread(this::drain);
+        worker.start();
+    }
+
+    /**
+     * Queues a ttl extension for the session unless one was already queued inside the window
+     */
+    public void refresh(LoginUser loginUser)
+    {
+        String token = loginUser.getToken();
+        long now = System.currentTimeMillis();
+        Long last = refreshed.get(token);
+        if (last != null && now - last < windowSeconds * TokenService.MILLIS_SECOND)
+        {
+            return;
+        }
+        boolean claimed = last == null ? refreshed.putIfAbsent(token, now) == null : refreshed.replace(token, last, now);
+        if (!claimed)
+        {
+            return;
+        }
+        if (!queue.offer(CacheConstants.LOGIN_TOKEN_KEY + token))
+        {
+            refreshed.remove(token, now);
+        }
+    }
+
+    private void drain()
+    {
+        List<String> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty())
+        {
+            try
+            {
+                String key = queue.poll(windowSeconds, TimeUnit.SECONDS);
+                if (key != null)
+                {
+                    batch.add(key);
+                    queue.drainTo(batch, batchSize - 1);
+                    flush(batch);
+                }
+                evictStale();
+            }
+            catch (InterruptedException e)
+            {
+                running = false;
+                queue.drainTo(batch);
+                flush(batch);
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void flush(List<String> batch)
+    {
+        if (batch.isEmpty())
+        {
+            return;
+        }
+        try
+        {
+            extendSessions(batch);
+        }
+        catch (Exception e)
+        {
+            log.error("Failed to extend {} login tokens: {}", batch.size(), e.getMessage());
+        }
+        finally
+        {
+            batch.clear();
+        }
+    }
+
+    private void extendSessions(List<String> keys)
+    {
+        if (keys.isEmpty())
+        {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Map<String, LoginUser> extended = redisCache.updateMultiCacheObject(keys, LoginUser.class, loginUser -> {
+            loginUser.setLoginTime(now);
+            loginUser.setExpireTime(now + expireTime * TokenService.MILLIS_MINUTE);
+            return loginUser;
+        }, expireTime, TimeUnit.MINUTES);
+        // also indexes sessions that were stored before the index existed
+        loginUserIndex.addAll(extended.values());
+        for (LoginUser loginUser : extended.values())
+        {
+            // the local entry still carries the old expire time; the next request loads the extended session
+            loginUserCache.evict(loginUser.getToken());
+        }
+    }
+
+    private void evictStale()
+    {
+        long now = System.currentTimeMillis();
+        long window = windowSeconds * TokenService.MILLIS_SECOND;
+        if (now - lastSweep < window)
+        {
+            return;
+        }
+        lastSweep = now;
+        refreshed.values().removeIf(time -> now - time >= window);
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        running = false;
+        worker.interrupt();
+        try
+        {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
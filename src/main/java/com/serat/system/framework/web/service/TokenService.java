@@ -1,8 +1,12 @@
 package com.serat.system.framework.web.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,14 +15,14 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import com.serat.system.common.constant.CacheConstants;
 import com.serat.system.common.constant.Constants;
+import com.serat.system.common.core.cache.LocalCache;
 import com.serat.system.common.core.domain.dto.LoginUser;
 import com.serat.system.common.core.redis.RedisCache;
 import com.serat.system.common.utils.ServletUtils;
 import com.serat.system.common.utils.StringUtils;
-import com.serat.system.common.utils.ip.AddressUtils;
 import com.serat.system.common.utils.ip.IpUtils;
 import com.serat.system.common.utils.uuid.IdUtils;
-import eu.bitwalker.useragentutils.UserAgent;
+import com.serat.system.framework.manager.IpLocationResolver;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
@@ -37,6 +41,9 @@ public class TokenService
     @Value("${token.expireTime}")
     private int expireTime;
 
+    @Value("${token.claimsCache.maxSize:10000}")
+    private int claimsCacheSize;
+
     protected static final long MILLIS_SECOND = 1000;
 
     protected static final long MILLIS_MINUTE = 60 * MILLIS_SECOND;
@@ -46,6 +53,35 @@ public class TokenService
     @Autowired
     private RedisCache redisCache;
 
+    @Autowired
+    private LoginUserCache loginUserCache;
+
+    @Autowired
+    private TokenRefresher tokenRefresher;
+
+    @Autowired
+    private LoginUserIndex loginUserIndex;
+
+    @Autowired
+    private PermissionRegistry permissionRegistry;
+
+    @Autowired
+    private IpLocationResolver ipLocationResolver;
+
+    @Autowired
+    private UserAgentCache userAgentCache;
+
+    private TokenClaimsCache claimsCache;
+
+    /** Locations resolved during login, by token, until createToken has stored the session */
+    private final LocalCache<String, String> lateLocations = new LocalCache<>(10000, MILLIS_MINUTE);
+
+    @PostConstruct
+    public void init()
+    {
+        claimsCache = new TokenClaimsCache(claimsCacheSize, expireTime * MILLIS_MINUTE);
+    }
+
     public LoginUser getLoginUser(HttpServletRequest request)
     {
         String token = getToken(request);
@@ -53,10 +89,14 @@ public class TokenService
         {
             try
             {
-                Claims claims = parseToken(token);
-                String uuid = (String) claims.get(Constants.LOGIN_USER_KEY);
-                String userKey = getTokenKey(uuid);
-                LoginUser user = redisCache.getCacheObject2(userKey, LoginUser.class);
+                String uuid = getTokenUuid(token);
+                LoginUser user = loginUserCache.get(uuid);
+                if (StringUtils.isNull(user))
+                {
+                    user = redisCache.getCacheObject2(getTokenKey(uuid), LoginUser.class);
+                    permissionRegistry.resolve(user);
+                    loginUserCache.put(uuid, user);
+                }
                 return user;
             }
             catch (Exception e)
@@ -80,8 +120,68 @@ public class TokenService
         if (StringUtils.isNotEmpty(token))
         {
             String userKey = getTokenKey(token);
+            LoginUser loginUser = loginUserCache.get(token);
+            if (StringUtils.isNull(loginUser))
+            {
+                loginUser = redisCache.getCacheObject2(userKey, LoginUser.class);
+            }
             redisCache.deleteObject(userKey);
+            loginUserCache.invalidate(token);
+            loginUserIndex.remove(token, loginUser);
+        }
+    }
+
+    /**
+     * Force logout of every session the user currently holds
+     */
+    public int delLoginUsersByUserName(String userName)
+    {
+        List<String> tokens = new ArrayList<>(loginUserIndex.find(null, userName));
+        List<LoginUser> loginUsers = getLoginUsers(tokens, null, userName);
+        List<String> keys = new ArrayList<>(loginUsers.size());
+        for (LoginUser loginUser : loginUsers)
+        {
+            keys.add(getTokenKey(loginUser.getToken()));
+        }
+        if (!keys.isEmpty())
+        {
+            redisCache.deleteObject(keys);
+        }
+        for (LoginUser loginUser : loginUsers)
+        {
+            loginUserCache.invalidate(loginUser.getToken());
+            loginUserIndex.remove(loginUser.getToken(), loginUser);
         }
+        return loginUsers.size();
+    }
+
+    /**
+     * Loads the sessions for the given token uuids in pipelined batches, in the same order,
+     * pruning tokens whose session has expired from the index sets they were looked up in
+     */
+    public List<LoginUser> getLoginUsers(List<String> tokens, String ipaddr, String userName)
+    {
+        List<String> keys = new ArrayList<>(tokens.size());
+        for (String token : tokens)
+        {
+            keys.add(getTokenKey(token));
+        }
+        List<LoginUser> values = redisCache.getMultiCacheObject(keys, LoginUser.class);
+        List<LoginUser> loginUsers = new ArrayList<>(values.size());
+        Collection<String> expired = new ArrayList<>();
+        for (int i = 0; i < values.size(); i++)
+        {
+            if (StringUtils.isNull(values.get(i)))
+            {
+                expired.add(tokens.get(i));
+            }
+            else
+            {
+                loginUsers.add(values.get(i));
+            }
+        }
+        loginUserIndex.prune(expired, ipaddr, userName);
+        return loginUsers;
     }
 
     public String createToken(LoginUser loginUser)
@@ -90,19 +190,30 @@ public class TokenService
         loginUser.setToken(token);
         setUserAgent(loginUser);
         refreshToken(loginUser);
+        // a location resolved while the session was being stored is only known here
+        String location = lateLocations.get(token);
+        if (location != null)
+        {
+            lateLocations.invalidate(token);
+            updateLoginLocation(token, location);
+        }
 
         Map<String, Object> claims = new HashMap<>();
         claims.put(Constants.LOGIN_USER_KEY, token);
         return createToken(claims);
     }
 
+    /**
+     * Sliding expiry for an unchanged session: the stored expire time and the ttl are extended together,
+     * asynchronously and coalesced per token
+     */
     public void verifyToken(LoginUser loginUser)
     {
         long expireTime = loginUser.getExpireTime();
         long currentTime = System.currentTimeMillis();
         if (expireTime - currentTime <= MILLIS_MINUTE_TEN)
         {
-            refreshToken(loginUser);
+            tokenRefresher.refresh(loginUser);
         }
     }
 
@@ -110,18 +221,48 @@ public class TokenService
     {
         loginUser.setLoginTime(System.currentTimeMillis());
         loginUser.setExpireTime(loginUser.getLoginTime() + expireTime * MILLIS_MINUTE);
+        permissionRegistry.resolve(loginUser);
         String userKey = getTokenKey(loginUser.getToken());
         redisCache.setCacheObject(userKey, loginUser, expireTime, TimeUnit.MINUTES);
+        loginUserCache.invalidate(loginUser.getToken());
+        loginUserCache.put(loginUser.getToken(), loginUser);
+        loginUserIndex.add(loginUser);
     }
 
     public void setUserAgent(LoginUser loginUser)
     {
-        UserAgent userAgent = UserAgent.parseUserAgentString(ServletUtils.getRequest().getHeader("User-Agent"));
+        UserAgentCache.Client client = userAgentCache.resolve(ServletUtils.getRequest().getHeader("User-Agent"));
         String ip = IpUtils.getIpAddr();
         loginUser.setIpaddr(ip);
-        loginUser.setLoginLocation(AddressUtils.getRealAddressByIP(ip));
-        loginUser.setBrowser(userAgent.getBrowser().getName());
-        loginUser.setOs(userAgent.getOperatingSystem().getName());
+        final String token = loginUser.getToken();
+        loginUser.setLoginLocation(ipLocationResolver.resolveNow(ip, location -> {
+            // kept for createToken in case the session is not stored yet, then patched into the stored one
+            lateLocations.put(token, location);
+            updateLoginLocation(token, location);
+        }));
+        loginUser.setBrowser(client.getBrowser());
+        loginUser.setOs(client.getOs());
+    }
+
+    /**
+     * Fills in a location that was still being resolved when the session was created. Only the location of the
+     * stored session is changed, with a compare and set that keeps its ttl, so a concurrent save is not undone;
+     * a session that is not stored yet is left alone.
+     */
+    private void updateLoginLocation(String token, String location)
+    {
+        LoginUser updated = redisCache.updateCacheObject(getTokenKey(token), LoginUser.class, stored -> {
+            if (!IpLocationResolver.PENDING.equals(stored.getLoginLocation()))
+            {
+                return null;
+            }
+            stored.setLoginLocation(location);
+            return stored;
+        });
+        if (updated != null)
+        {
+            loginUserCache.invalidate(token);
+        }
     }
 
     private String createToken(Map<String, Object> claims)
@@ -140,6 +281,29 @@ public class TokenService
                 .getBody();
     }
 
+    /**
+     * Resolves the login uuid claim, verifying the signature only the first time a token is seen
+     */
+    private String getTokenUuid(String token)
+    {
+        String uuid = claimsCache.get(token);
+        if (uuid == null)
+        {
+            Claims claims = parseToken(token);
+            uuid = (String) claims.get(Constants.LOGIN_USER_KEY);
+            claimsCache.put(token, uuid);
+        }
+        return uuid;
+    }
+
+    /**
+     * Hit and miss counts of the verified claims cache
+     */
+    public Map<String, Object> claimsCacheStats()
+    {
+        return claimsCache.stats();
+    }
+
     public String getUsernameFromToken(String token)
     {
         Claims claims = parseToken(token);
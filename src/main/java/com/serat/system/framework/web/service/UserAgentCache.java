@@ -0,0 +1,82 @@
+package com.serat.system.framework.web.service;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.serat.system.common.core.cache.LocalCache;
+import com.serat.system.common.utils.StringUtils;
+import eu.bitwalker.useragentutils.UserAgent;
+
+/**
+ * Browser and operating system names per User-Agent header. Clients send only a few distinct headers,
+ * so each is parsed once instead of on every login and login log record.
+ */
+@Component
+public class UserAgentCache
+{
+    /** Longer headers are parsed but not cached, so odd clients cannot crowd out the common ones */
+    private static final int MAX_KEY_LENGTH = 512;
+
+    @Value("${serat.userAgent.cacheSize:1000}")
+    private int cacheSize;
+
+    private LocalCache<String, Client> cache;
+
+    @PostConstruct
+    public void init()
+    {
+        cache = new LocalCache<>(cacheSize, TimeUnit.DAYS.toMillis(1));
+    }
+
+    public Client resolve(String userAgent)
+    {
+        String key = StringUtils.nvl(userAgent, "");
+        if (key.length() > MAX_KEY_LENGTH)
+        {
+            return parse(key);
+        }
+        Client client = cache.get(key);
+        if (client == null)
+        {
+            client = parse(key);
+            cache.put(key, client);
+        }
+        return client;
+    }
+
+    public Map<String, Object> stats()
+    {
+        return cache.stats();
+    }
+
+    private static Client parse(String userAgent)
+    {
+        UserAgent parsed = UserAgent.parseUserAgentString(userAgent);
+        return new Client(parsed.getBrowser().getName(), parsed.getOperatingSystem().getName());
+    }
+
+    public static final class Client
+    {
+        private final String browser;
+
+        private final String os;
+
+        private Client(String browser, String os)
+        {
+            this.browser = browser;
+            this.os = os;
+        }
+
+        public String getBrowser()
+        {
+            return browser;
+        }
+
+        public String getOs()
+        {
+            return os;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.serat.system.system.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Date;
+import java.util.List;
+
+@Mapper
+public interface SysLogPartitionMapper
+{
+    String createMonthlyPartition(@Param("tableName") String tableName, @Param("month") Date month);
+
+    List<String> selectPartitionNames(String tableName);
+
+    void dropPartition(@Param("partitionName") String partitionName);
+}
@@ -10,6 +10,8 @@ public interface SysLogininforMapper
 {
     void insertLogininfor(SysLogininfor logininfor);
 
+    int insertLogininforBatch(List<SysLogininfor> logininfors);
+
     List<SysLogininfor> selectLogininforList(SysLogininfor logininfor);
 
     int deleteLogininforByIds(Long[] infoIds);
@@ -10,6 +10,8 @@ public interface SysOperLogMapper
 {
     void insertOperlog(SysOperLog operLog);
 
+    int insertOperlogBatch(List<SysOperLog> operLogs);
+
     List<SysOperLog> selectOperLogList(SysOperLog operLog);
 
     int deleteOperLogByIds(Long[] operIds);
@@ -0,0 +1,14 @@
+package com.serat.system.system.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+
+@Mapper
+public interface SysTableStatsMapper
+{
+    Long selectEstimatedRows(String tableName);
+
+    /**
+     * Row counts and latest change times of the parameter and dictionary tables, as one comparable string
+     */
+    String selectCacheFingerprint();
+}
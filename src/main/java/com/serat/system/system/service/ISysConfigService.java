@@ -14,6 +14,11 @@ public interface ISysConfigService
     int updateConfig(SysConfig config);
     void deleteConfigByIds(Long[] configIds);
     void loadingConfigCache();
+
+    /**
+     * Loads the in-process snapshot that parameter reads are served from, without writing redis
+     */
+    void loadingConfigSnapshot();
     void clearConfigCache();
     void resetConfigCache();
     boolean checkConfigKeyUnique(SysConfig config);
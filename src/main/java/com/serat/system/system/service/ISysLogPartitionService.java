@@ -0,0 +1,10 @@
+package com.serat.system.system.service;
+
+import java.util.List;
+
+public interface ISysLogPartitionService
+{
+    void createPartitions();
+
+    List<String> dropExpiredPartitions();
+}
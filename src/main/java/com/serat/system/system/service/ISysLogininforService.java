@@ -8,6 +8,8 @@ public interface ISysLogininforService
 {
     void insertLogininfor(SysLogininfor logininfor);
 
+    int insertLogininforBatch(List<SysLogininfor> logininfors);
+
     List<SysLogininfor> selectLogininforList(SysLogininfor logininfor);
 
     int deleteLogininforByIds(Long[] infoIds);
@@ -13,6 +13,8 @@ public interface ISysMenuService
 
     List<SysMenu> selectMenuList(SysMenu menu, Long userId);
 
+    Set<String> selectMenuPerms();
+
     Set<String> selectMenuPermsByUserId(Long userId);
 
     Set<String> selectMenuPermsByRoleId(Long roleId);
@@ -8,6 +8,8 @@ public interface ISysOperLogService
 {
     void insertOperlog(SysOperLog operLog);
 
+    int insertOperlogBatch(List<SysOperLog> operLogs);
+
     List<SysOperLog> selectOperLogList(SysOperLog operLog);
 
     int deleteOperLogByIds(Long[] operIds);
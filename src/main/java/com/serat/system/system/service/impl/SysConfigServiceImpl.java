@@ -11,26 +11,63 @@ import com.serat.system.common.utils.StringUtils;
 import com.serat.system.system.domain.SysConfig;
 import com.serat.system.system.mapper.SysConfigMapper;
 import com.serat.system.system.service.ISysConfigService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Parameter configuration. Reads are served from an immutable in-process snapshot of all rows; every change
+ * increments a version counter in redis and is announced on a channel, and each node reloads its snapshot when
+ * it hears the announcement or, at the latest, when its periodic version check sees a newer version.
+ */
 @Service
-public class SysConfigServiceImpl implements ISysConfigService
+public class SysConfigServiceImpl implements ISysConfigService, MessageListener
 {
+    private static final Logger log = LoggerFactory.getLogger(SysConfigServiceImpl.class);
+
     @Autowired
     private SysConfigMapper configMapper;
 
     @Autowired
     private RedisCache redisCache;
 
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Value("${serat.config.checkInterval:5000}")
+    private long checkInterval;
+
+    /** Version of a snapshot loaded while the version in redis could not be read; the next check reloads it */
+    private static final long UNKNOWN_VERSION = -1;
+
+    /** Null until first loaded */
+    private volatile Snapshot snapshot;
+
+    private final AtomicLong nextCheck = new AtomicLong();
+
     @PostConstruct
     public void init()
     {
-        loadingConfigCache();
+        // the snapshot and redis are loaded by the startup warm-up; reads before that load the snapshot themselves
+        listenerContainer.addMessageListener(this, new ChannelTopic(CacheConstants.SYS_CONFIG_TOPIC));
     }
 
     @Override
@@ -45,20 +82,8 @@ public class SysConfigServiceImpl implements ISysConfigService
     @Override
     public String selectConfigByKey(String configKey)
     {
-        String configValue = Convert.toStr(redisCache.getCacheObject(getCacheKey(configKey)));
-        if (StringUtils.isNotEmpty(configValue))
-        {
-            return configValue;
-        }
-        SysConfig config = new SysConfig();
-        config.setConfigKey(configKey);
-        SysConfig retConfig = configMapper.selectConfig(config);
-        if (StringUtils.isNotNull(retConfig))
-        {
-            redisCache.setCacheObject(getCacheKey(configKey), retConfig.getConfigValue());
-            return retConfig.getConfigValue();
-        }
-        return StringUtils.EMPTY;
+        String configValue = currentSnapshot().values.get(configKey);
+        return StringUtils.isNotNull(configValue) ? configValue : StringUtils.EMPTY;
     }
 
     @Override
@@ -85,6 +110,7 @@ public class SysConfigServiceImpl implements ISysConfigService
         if (row > 0)
         {
             redisCache.setCacheObject(getCacheKey(config.getConfigKey()), config.getConfigValue());
+            publishChange();
         }
         return row;
     }
@@ -102,6 +128,7 @@ public class SysConfigServiceImpl implements ISysConfigService
         if (row > 0)
         {
             redisCache.setCacheObject(getCacheKey(config.getConfigKey()), config.getConfigValue());
+            publishChange();
         }
         return row;
     }
@@ -109,6 +136,8 @@ public class SysConfigServiceImpl implements ISysConfigService
     @Override
     public void deleteConfigByIds(Long[] configIds)
     {
+        // every id is checked before anything is deleted, so a built-in parameter rejects the whole request
+        List<SysConfig> configs = new ArrayList<>(configIds.length);
         for (Long configId : configIds)
         {
             SysConfig config = selectConfigById(configId);
@@ -116,32 +145,53 @@ public class SysConfigServiceImpl implements ISysConfigService
             {
                 throw new ServiceException(String.format("Built-in parameter [%1$s] cannot be deleted ", config.getConfigKey()));
             }
-            configMapper.deleteConfigById(configId);
-            redisCache.deleteObject(getCacheKey(config.getConfigKey()));
+            configs.add(config);
+        }
+        try
+        {
+            for (SysConfig config : configs)
+            {
+                configMapper.deleteConfigById(config.getConfigId());
+                redisCache.deleteObject(getCacheKey(config.getConfigKey()));
+            }
+        }
+        finally
+        {
+            // announced even when a delete fails part way, so no node keeps serving rows that are gone
+            publishChange();
         }
     }
 
     @Override
     public void loadingConfigCache()
     {
-        List<SysConfig> configsList = configMapper.selectConfigList(new SysConfig());
+        List<SysConfig> configsList = reloadSnapshot();
+        Map<String, String> values = new HashMap<>(configsList.size() * 2);
         for (SysConfig config : configsList)
         {
-            redisCache.setCacheObject(getCacheKey(config.getConfigKey()), config.getConfigValue());
+            values.put(getCacheKey(config.getConfigKey()), config.getConfigValue());
         }
+        redisCache.setMultiCacheObject(values);
+    }
+
+    @Override
+    public void loadingConfigSnapshot()
+    {
+        reloadSnapshot();
     }
 
     @Override
     public void clearConfigCache()
     {
-        Collection<String> keys = redisCache.keys(CacheConstants.SYS_CONFIG_KEY + "*");
-        redisCache.deleteObject(keys);
+        redisCache.unlinkKeys(CacheConstants.SYS_CONFIG_KEY + "*");
+        redisCache.deleteObject(CacheConstants.SYS_CACHE_WARM_KEY);
     }
     @Override
     public void resetConfigCache()
     {
         clearConfigCache();
         loadingConfigCache();
+        publishChange();
     }
 
     @Override
@@ -155,8 +205,112 @@ public class SysConfigServiceImpl implements ISysConfigService
         }
         return UserConstants.UNIQUE;
     }
+    @Override
+    public void onMessage(Message message, byte[] pattern)
+    {
+        reloadSnapshot();
+    }
+
+    /**
+     * Returns the snapshot, first checking the version in redis if the check interval has passed.
+     * Only one caller per interval performs the check; the others read the snapshot as it is.
+     */
+    private Snapshot currentSnapshot()
+    {
+        Snapshot current = snapshot;
+        if (current == null)
+        {
+            return initialSnapshot();
+        }
+        long now = System.currentTimeMillis();
+        long next = nextCheck.get();
+        if (now >= next && nextCheck.compareAndSet(next, now + checkInterval))
+        {
+            try
+            {
+                if (readVersion() != current.version)
+                {
+                    reloadSnapshot();
+                    current = snapshot;
+                }
+            }
+            catch (Exception e)
+            {
+                log.warn("Could not check the parameter version, keeping the current snapshot: {}", e.getMessage());
+            }
+        }
+        return current;
+    }
+
+    /**
+     * First load, from the database even when redis cannot be reached; a database failure is thrown to the caller
+     */
+    private synchronized Snapshot initialSnapshot()
+    {
+        if (snapshot == null)
+        {
+            reloadSnapshot();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Replaces the snapshot with the rows in the database. The version is read first, so a change made
+     * while loading leaves an older version in the snapshot and is picked up by the next check.
+     */
+    private synchronized List<SysConfig> reloadSnapshot()
+    {
+        long version;
+        try
+        {
+            version = readVersion();
+        }
+        catch (Exception e)
+        {
+            log.warn("Could not read the parameter version, loading the snapshot without it: {}", e.getMessage());
+            version = UNKNOWN_VERSION;
+        }
+        List<SysConfig> configsList = configMapper.selectConfigList(new SysConfig());
+        Map<String, String> values = new HashMap<>(configsList.size() * 2);
+        for (SysConfig config : configsList)
+        {
+            values.put(config.getConfigKey(), StringUtils.nvl(config.getConfigValue(), StringUtils.EMPTY));
+        }
+        snapshot = new Snapshot(version, Collections.unmodifiableMap(values));
+        return configsList;
+    }
+
+    private long readVersion()
+    {
+        String version = stringRedisTemplate.opsForValue().get(CacheConstants.SYS_CONFIG_VERSION_KEY);
+        return version == null ? 0 : Long.parseLong(version);
+    }
+
+    /**
+     * Moves the version on and tells every node, including this one, to reload
+     */
+    private void publishChange()
+    {
+        stringRedisTemplate.opsForValue().increment(CacheConstants.SYS_CONFIG_VERSION_KEY);
+        reloadSnapshot();
+        stringRedisTemplate.convertAndSend(CacheConstants.SYS_CONFIG_TOPIC, String.valueOf(snapshot.version));
+    }
+
     private String getCacheKey(String configKey)
     {
         return CacheConstants.SYS_CONFIG_KEY + configKey;
     }
+
+    private static final class Snapshot
+    {
+        private final long version;
+
+        private final Map<String, String> values;
+
+        private Snapshot(long version, Map<String, String> values)
+        {
+            this.version = version;
+            this.values = values;
+        }
+    }
 }
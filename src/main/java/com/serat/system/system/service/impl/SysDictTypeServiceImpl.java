@@ -13,7 +13,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import jakarta.annotation.PostConstruct;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
@@ -28,12 +27,6 @@ public class SysDictTypeServiceImpl implements ISysDictTypeService
     @Autowired
     private SysDictDataMapper dictDataMapper;
 
-    @PostConstruct
-    public void init()
-    {
-        loadingDictCache();
-    }
-
     @Override
     public List<SysDictType> selectDictTypeList(SysDictType dictType)
     {
@@ -95,11 +88,10 @@ public class SysDictTypeServiceImpl implements ISysDictTypeService
     {
         SysDictData dictData = new SysDictData();
         dictData.setStatus("0");
-        Map<String, List<SysDictData>> dictDataMap = dictDataMapper.selectDictDataList(dictData).stream().collect(Collectors.groupingBy(SysDictData::getDictType));
-        for (Map.Entry<String, List<SysDictData>> entry : dictDataMap.entrySet())
-        {
-            DictUtils.setDictCache(entry.getKey(), entry.getValue().stream().sorted(Comparator.comparing(SysDictData::getDictSort)).collect(Collectors.toList()));
-        }
+        Map<String, List<SysDictData>> dictDataMap = dictDataMapper.selectDictDataList(dictData).stream()
+                .sorted(Comparator.comparing(SysDictData::getDictSort))
+                .collect(Collectors.groupingBy(SysDictData::getDictType));
+        DictUtils.setDictCaches(dictDataMap);
     }
 
     @Override
@@ -0,0 +1,127 @@
+package com.serat.system.system.service.impl;
+
+import com.serat.system.system.mapper.SysLogPartitionMapper;
+import com.serat.system.system.service.ISysLogPartitionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the monthly partitions of sys_oper_log and sys_logininfor ahead of time and drops whole partitions
+ * once they fall out of the retention period, instead of deleting rows
+ */
+@Service
+public class SysLogPartitionServiceImpl implements ISysLogPartitionService
+{
+    private static final Logger log = LoggerFactory.getLogger(SysLogPartitionServiceImpl.class);
+
+    private static final String[] TABLES = { "sys_oper_log", "sys_logininfor" };
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("^(sys_oper_log|sys_logininfor)_p(\\d{6})$");
+
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+
+    @Value("${serat.logRetention.months:12}")
+    private int retentionMonths;
+
+    @Value("${serat.logRetention.aheadMonths:3}")
+    private int aheadMonths;
+
+    @Autowired
+    private SysLogPartitionMapper partitionMapper;
+
+    @Autowired
+    private ScheduledExecutorService scheduledExecutorService;
+
+    @PostConstruct
+    public void init()
+    {
+        scheduledExecutorService.scheduleWithFixedDelay(this::maintain, 1, TimeUnit.DAYS.toMinutes(1), TimeUnit.MINUTES);
+    }
+
+    private void maintain()
+    {
+        try
+        {
+            createPartitions();
+            dropExpiredPartitions();
+        }
+        catch (Exception e)
+        {
+            log.error("Audit log partition maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Creates the partitions for the current month and the configured number of months ahead,
+     * so new rows never fall into the default partition. Rows that already did, because a run was missed, are
+     * moved into the month's partition when it is created (see create_monthly_partition in V5).
+     */
+    @Override
+    public void createPartitions()
+    {
+        YearMonth month = YearMonth.now();
+        for (String table : TABLES)
+        {
+            for (int i = 0; i <= aheadMonths; i++)
+            {
+                try
+                {
+                    partitionMapper.createMonthlyPartition(table, Date.valueOf(month.plusMonths(i).atDay(1)));
+                }
+                catch (Exception e)
+                {
+                    // another node may have created it concurrently
+                    log.warn("Could not create {} partition for {}: {}", table, month.plusMonths(i), e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops monthly partitions that ended before the retention period; returns the dropped partition names
+     */
+    @Override
+    public List<String> dropExpiredPartitions()
+    {
+        List<String> dropped = new ArrayList<>();
+        if (retentionMonths <= 0)
+        {
+            return dropped;
+        }
+        LocalDate cutoff = YearMonth.now().minusMonths(retentionMonths).atDay(1);
+        for (String table : TABLES)
+        {
+            for (String partition : partitionMapper.selectPartitionNames(table))
+            {
+                Matcher matcher = PARTITION_NAME.matcher(partition);
+                if (!matcher.matches())
+                {
+                    continue;
+                }
+                YearMonth month = YearMonth.parse(matcher.group(2), PARTITION_MONTH);
+                if (!month.plusMonths(1).atDay(1).isAfter(cutoff))
+                {
+                    partitionMapper.dropPartition(partition);
+                    dropped.add(partition);
+                    log.info("Dropped audit log partition {} (older than {} months)", partition, retentionMonths);
+                }
+            }
+        }
+        return dropped;
+    }
+}
@@ -21,6 +21,12 @@ public class SysLogininforServiceImpl implements ISysLogininforService
         logininforMapper.insertLogininfor(logininfor);
     }
 
+    @Override
+    public int insertLogininforBatch(List<SysLogininfor> logininfors)
+    {
+        return logininforMapper.insertLogininforBatch(logininfors);
+    }
+
     @Override
     public List<SysLogininfor> selectLogininforList(SysLogininfor logininfor)
     {
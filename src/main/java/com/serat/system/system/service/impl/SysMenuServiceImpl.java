@@ -56,6 +56,21 @@ public class SysMenuServiceImpl implements ISysMenuService
         return menuList;
     }
 
+    @Override
+    public Set<String> selectMenuPerms()
+    {
+        List<String> perms = menuMapper.selectMenuPerms();
+        Set<String> permsSet = new HashSet<>();
+        for (String perm : perms)
+        {
+            if (StringUtils.isNotEmpty(perm))
+            {
+                permsSet.addAll(Arrays.asList(perm.trim().split(",")));
+            }
+        }
+        return permsSet;
+    }
+
     @Override
     public Set<String> selectMenuPermsByUserId(Long userId)
     {
@@ -20,6 +20,12 @@ public class SysOperLogServiceImpl implements ISysOperLogService
         operLogMapper.insertOperlog(operLog);
     }
 
+    @Override
+    public int insertOperlogBatch(List<SysOperLog> operLogs)
+    {
+        return operLogMapper.insertOperlogBatch(operLogs);
+    }
+
     @Override
     public List<SysOperLog> selectOperLogList(SysOperLog operLog)
     {
@@ -0,0 +1,117 @@
+BEGIN;
+
+-- ----------------------------
+-- Creates the monthly range partition of an audit table covering the given date, if it does not exist yet.
+-- Partitions are named <table>_pYYYYMM; rows outside every partition land in <table>_default.
+-- ----------------------------
+CREATE OR REPLACE FUNCTION create_monthly_partition(parent_table TEXT, month_date DATE) RETURNS TEXT AS $$
+DECLARE
+    month_start DATE := date_trunc('month', month_date)::DATE;
+    partition_name TEXT := parent_table || '_p' || to_char(month_start, 'YYYYMM');
+BEGIN
+    IF to_regclass(partition_name) IS NULL THEN
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                       partition_name, parent_table, month_start, (month_start + INTERVAL '1 month')::DATE);
+    END IF;
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- ----------------------------
+-- Operation log, partitioned by oper_time
+-- ----------------------------
+ALTER TABLE sys_oper_log RENAME TO sys_oper_log_legacy;
+ALTER INDEX sys_oper_log_pkey RENAME TO sys_oper_log_legacy_pkey;
+
+CREATE TABLE sys_oper_log (
+    oper_id           BIGINT        NOT NULL DEFAULT nextval('sys_oper_log_oper_id_seq'),
+    title             VARCHAR(50)   DEFAULT '',
+    business_type     SMALLINT      DEFAULT 0,
+    method            VARCHAR(200)  DEFAULT '',
+    request_method    VARCHAR(10)   DEFAULT '',
+    operator_type     SMALLINT      DEFAULT 0,
+    oper_name         VARCHAR(50)   DEFAULT '',
+    dept_name         VARCHAR(50)   DEFAULT '',
+    oper_url          VARCHAR(255)  DEFAULT '',
+    oper_ip           VARCHAR(128)  DEFAULT '',
+    oper_location     VARCHAR(255)  DEFAULT '',
+    oper_param        VARCHAR(2000) DEFAULT '',
+    json_result       VARCHAR(2000) DEFAULT '',
+    status            SMALLINT      DEFAULT 0,
+    error_msg         VARCHAR(2000) DEFAULT '',
+    oper_time         TIMESTAMP     NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    cost_time         BIGINT        DEFAULT 0,
+    PRIMARY KEY (oper_id, oper_time)
+) PARTITION BY RANGE (oper_time);
+
+ALTER SEQUENCE sys_oper_log_oper_id_seq AS BIGINT OWNED BY sys_oper_log.oper_id;
+
+CREATE TABLE sys_oper_log_default PARTITION OF sys_oper_log DEFAULT;
+
+CREATE INDEX idx_sys_oper_log_ot ON sys_oper_log (oper_time, oper_id);
+CREATE INDEX idx_sys_oper_log_bt ON sys_oper_log (business_type);
+CREATE INDEX idx_sys_oper_log_s  ON sys_oper_log (status);
+
+-- ----------------------------
+-- Login log, partitioned by login_time
+-- ----------------------------
+ALTER TABLE sys_logininfor RENAME TO sys_logininfor_legacy;
+ALTER INDEX sys_logininfor_pkey RENAME TO sys_logininfor_legacy_pkey;
+DROP INDEX IF EXISTS idx_sys_logininfor_s;
+DROP INDEX IF EXISTS idx_sys_logininfor_lt;
+
+CREATE TABLE sys_logininfor (
+    info_id          BIGINT         NOT NULL DEFAULT nextval('sys_logininfor_info_id_seq'),
+    user_name        VARCHAR(50)    DEFAULT '' ,
+    ipaddr           VARCHAR(128)   DEFAULT '' ,
+    login_location   VARCHAR(255)   DEFAULT '' ,
+    browser          VARCHAR(50)    DEFAULT '' ,
+    os               VARCHAR(50)    DEFAULT '' ,
+    status           CHAR(1)        DEFAULT '0' ,
+    msg              VARCHAR(255)   DEFAULT '' ,
+    login_time       TIMESTAMP      NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (info_id, login_time)
+) PARTITION BY RANGE (login_time);
+
+ALTER SEQUENCE sys_logininfor_info_id_seq AS BIGINT OWNED BY sys_logininfor.info_id;
+
+CREATE TABLE sys_logininfor_default PARTITION OF sys_logininfor DEFAULT;
+
+CREATE INDEX idx_sys_logininfor_s  ON sys_logininfor (status);
+CREATE INDEX idx_sys_logininfor_lt ON sys_logininfor (login_time, info_id);
+
+-- ----------------------------
+-- Monthly partitions from the oldest existing row up to three months ahead, then copy the rows over
+-- ----------------------------
+DO $$
+DECLARE
+    month_date DATE;
+BEGIN
+    month_date := date_trunc('month', COALESCE((SELECT MIN(oper_time) FROM sys_oper_log_legacy), CURRENT_DATE));
+    WHILE month_date <= CURRENT_DATE + INTERVAL '3 months' LOOP
+        PERFORM create_monthly_partition('sys_oper_log', month_date);
+        month_date := month_date + INTERVAL '1 month';
+    END LOOP;
+
+    month_date := date_trunc('month', COALESCE((SELECT MIN(login_time) FROM sys_logininfor_legacy), CURRENT_DATE));
+    WHILE month_date <= CURRENT_DATE + INTERVAL '3 months' LOOP
+        PERFORM create_monthly_partition('sys_logininfor', month_date);
+        month_date := month_date + INTERVAL '1 month';
+    END LOOP;
+END;
+$$;
+
+INSERT INTO sys_oper_log (oper_id, title, business_type, method, request_method, operator_type, oper_name, dept_name, oper_url,
+                          oper_ip, oper_location, oper_param, json_result, status, error_msg, oper_time, cost_time)
+SELECT oper_id, title, business_type, method, request_method, operator_type, oper_name, dept_name, oper_url,
+       oper_ip, oper_location, oper_param, json_result, status, error_msg, COALESCE(oper_time, CURRENT_TIMESTAMP), cost_time
+FROM sys_oper_log_legacy;
+
+INSERT INTO sys_logininfor (info_id, user_name, ipaddr, login_location, browser, os, status, msg, login_time)
+SELECT info_id, user_name, ipaddr, login_location, browser, os, status, msg, COALESCE(login_time, CURRENT_TIMESTAMP)
+FROM sys_logininfor_legacy;
+
+DROP TABLE sys_oper_log_legacy;
+DROP TABLE sys_logininfor_legacy;
+
+COMMIT;
@@ -0,0 +1,25 @@
+BEGIN;
+
+-- ----------------------------
+-- Trigram indexes for the substring filters of the list pages (column LIKE/ILIKE '%' || value || '%').
+-- A B-tree cannot serve a leading wildcard; a pg_trgm GIN index can, for LIKE and ILIKE alike,
+-- once the search value has at least three characters.
+-- Configuration tables (menu, role, post, dictionaries) stay small enough that a scan is always cheaper.
+-- ----------------------------
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX idx_sys_user_un_trgm ON sys_user USING gin (user_name gin_trgm_ops);
+CREATE INDEX idx_sys_user_pn_trgm ON sys_user USING gin (phonenumber gin_trgm_ops);
+
+-- created on the partitioned parent, so every current and future monthly partition gets its own index
+CREATE INDEX idx_sys_oper_log_ip_trgm    ON sys_oper_log USING gin (oper_ip gin_trgm_ops);
+CREATE INDEX idx_sys_oper_log_title_trgm ON sys_oper_log USING gin (title gin_trgm_ops);
+CREATE INDEX idx_sys_oper_log_on_trgm    ON sys_oper_log USING gin (oper_name gin_trgm_ops);
+
+CREATE INDEX idx_sys_logininfor_ip_trgm ON sys_logininfor USING gin (ipaddr gin_trgm_ops);
+CREATE INDEX idx_sys_logininfor_un_trgm ON sys_logininfor USING gin (user_name gin_trgm_ops);
+
+CREATE INDEX idx_sys_notice_title_trgm ON sys_notice USING gin (notice_title gin_trgm_ops);
+CREATE INDEX idx_sys_notice_cb_trgm    ON sys_notice USING gin (create_by gin_trgm_ops);
+
+COMMIT;
@@ -0,0 +1,48 @@
+BEGIN;
+
+-- ----------------------------
+-- create_monthly_partition, now also when the default partition already holds rows of that month
+-- (for example after maintenance missed a run). PostgreSQL refuses to create such a partition directly,
+-- so it is created as a plain table, the month's rows are moved out of the default partition and the
+-- table is then attached. All of it runs in the caller's transaction.
+-- ----------------------------
+CREATE OR REPLACE FUNCTION create_monthly_partition(parent_table TEXT, month_date DATE) RETURNS TEXT AS $$
+DECLARE
+    month_start DATE := date_trunc('month', month_date)::DATE;
+    month_end DATE := (date_trunc('month', month_date) + INTERVAL '1 month')::DATE;
+    partition_name TEXT := parent_table || '_p' || to_char(month_start, 'YYYYMM');
+    default_name TEXT := parent_table || '_default';
+    key_column TEXT;
+    has_rows BOOLEAN := FALSE;
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN partition_name;
+    END IF;
+
+    SELECT a.attname INTO key_column
+    FROM pg_partitioned_table p
+    JOIN pg_attribute a ON a.attrelid = p.partrelid AND a.attnum = p.partattrs[0]
+    WHERE p.partrelid = parent_table::regclass;
+
+    IF to_regclass(default_name) IS NOT NULL THEN
+        EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I WHERE %I >= %L AND %I < %L)',
+                       default_name, key_column, month_start, key_column, month_end) INTO has_rows;
+    END IF;
+
+    IF has_rows THEN
+        RAISE WARNING 'Moving rows of % from % into the new partition %', to_char(month_start, 'YYYY-MM'),
+                      default_name, partition_name;
+        EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', partition_name, parent_table);
+        EXECUTE format('WITH moved AS (DELETE FROM %I WHERE %I >= %L AND %I < %L RETURNING *) INSERT INTO %I SELECT * FROM moved',
+                       default_name, key_column, month_start, key_column, month_end, partition_name);
+        EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                       parent_table, partition_name, month_start, month_end);
+    ELSE
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                       partition_name, parent_table, month_start, month_end);
+    END IF;
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+COMMIT;
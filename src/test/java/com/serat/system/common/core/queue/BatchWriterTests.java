@@ -0,0 +1,138 @@
+package com.serat.system.common.core.queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class BatchWriterTests
+{
+    private final List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+
+    @Test
+    void batchesNeverExceedTheBatchSize()
+    {
+        BatchWriter<Integer> writer = new BatchWriter<>("test", batch -> batches.add(new ArrayList<>(batch)), 100, 10,
+                10000, 0);
+        for (int i = 0; i < 25; i++)
+        {
+            assertThat(writer.submit(i)).isTrue();
+        }
+
+        writer.shutdown(1000);
+
+        assertThat(batches).allSatisfy(batch -> assertThat(batch).hasSizeBetween(1, 10));
+        assertThat(written()).containsExactlyElementsOf(range(25));
+        assertThat(writer.stats()).containsEntry("written", 25L).containsEntry("failed", 0L);
+    }
+
+    @Test
+    void partialBatchIsFlushedAfterTheInterval() throws InterruptedException
+    {
+        CountDownLatch flushed = new CountDownLatch(1);
+        BatchWriter<Integer> writer = new BatchWriter<>("test", batch -> {
+            batches.add(new ArrayList<>(batch));
+            flushed.countDown();
+        }, 100, 10, 50, 0);
+        writer.submit(1);
+        writer.submit(2);
+        writer.submit(3);
+
+        assertThat(flushed.await(5, TimeUnit.SECONDS)).isTrue();
+
+        writer.shutdown(1000);
+        assertThat(written()).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void fullQueueHandsRecordsToTheOverflow() throws InterruptedException
+    {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BatchWriter<Integer> writer = new BatchWriter<>("test", batch -> {
+            writing.countDown();
+            await(release);
+            batches.add(new ArrayList<>(batch));
+        }, 1, 1, 10, 0);
+        List<Integer> overflowed = new CopyOnWriteArrayList<>();
+        writer.setOverflow(overflowed::addAll);
+        writer.submit(1);
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        // the worker is stuck on the first record, so the queue holds one more
+        writer.submit(2);
+
+        assertThat(writer.submit(3)).isTrue();
+        assertThat(overflowed).containsExactly(3);
+
+        writer.setOverflow(records -> false);
+        assertThat(writer.submit(4)).isFalse();
+
+        release.countDown();
+        writer.shutdown(1000);
+        assertThat(written()).containsExactly(1, 2);
+        assertThat(writer.stats()).containsEntry("overflowed", 1L).containsEntry("dropped", 1L);
+    }
+
+    @Test
+    void failedBatchesAreCounted()
+    {
+        BatchWriter<Integer> writer = new BatchWriter<>("test", batch -> {
+            throw new IllegalStateException("database down");
+        }, 100, 10, 10, 0);
+        writer.submit(1);
+        writer.submit(2);
+
+        writer.shutdown(1000);
+
+        assertThat(writer.stats()).containsEntry("failed", 2L).containsEntry("written", 0L);
+    }
+
+    @Test
+    void recordsAfterShutdownAreWrittenSynchronously()
+    {
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        BatchWriter<Integer> writer = new BatchWriter<>("test", batch -> {
+            threads.add(Thread.currentThread());
+            batches.add(new ArrayList<>(batch));
+        }, 100, 10, 10, 0);
+        writer.shutdown(1000);
+
+        assertThat(writer.submit(7)).isTrue();
+
+        assertThat(written()).containsExactly(7);
+        assertThat(threads).containsExactly(Thread.currentThread());
+    }
+
+    private List<Integer> written()
+    {
+        List<Integer> records = new ArrayList<>();
+        batches.forEach(records::addAll);
+        return records;
+    }
+
+    private static List<Integer> range(int count)
+    {
+        List<Integer> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+        {
+            values.add(i);
+        }
+        return values;
+    }
+
+    private static void await(CountDownLatch latch)
+    {
+        try
+        {
+            latch.await(5, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
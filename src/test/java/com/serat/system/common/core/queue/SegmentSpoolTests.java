@@ -0,0 +1,230 @@
+package com.serat.system.common.core.queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SegmentSpoolTests
+{
+    private static final byte TYPE_A = 1;
+
+    private static final byte TYPE_B = 2;
+
+    /** Header of a record: length, crc32, type */
+    private static final int HEADER_SIZE = 9;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsRecordsBackInOrderAcrossSegments() throws IOException
+    {
+        SegmentSpool spool = new SegmentSpool(dir, 64);
+        for (int i = 0; i < 10; i++)
+        {
+            spool.append(TYPE_A, payload("record-" + i));
+        }
+        spool.force();
+        assertThat(segmentCount()).isGreaterThan(1);
+
+        SegmentSpool.Batch batch = spool.read(100);
+
+        assertThat(texts(batch)).containsExactly("record-0", "record-1", "record-2", "record-3", "record-4",
+                "record-5", "record-6", "record-7", "record-8", "record-9");
+        spool.close();
+    }
+
+    @Test
+    void readDoesNotConsumeUntilCommitted() throws IOException
+    {
+        SegmentSpool spool = new SegmentSpool(dir, 1024);
+        spool.append(TYPE_A, payload("a"));
+        spool.append(TYPE_A, payload("b"));
+
+        assertThat(texts(spool.read(1))).containsExactly("a");
+        assertThat(texts(spool.read(1))).containsExactly("a");
+
+        spool.commit(spool.read(1));
+
+        assertThat(texts(spool.read(10))).containsExactly("b");
+        spool.commit(spool.read(10));
+        assertThat(spool.isEmpty()).isTrue();
+        assertThat(spool.pendingBytes()).isZero();
+        spool.close();
+    }
+
+    @Test
+    void batchEndsAtTheFirstRecordOfAnotherType() throws IOException
+    {
+        SegmentSpool spool = new SegmentSpool(dir, 1024);
+        spool.append(TYPE_A, payload("a1"));
+        spool.append(TYPE_A, payload("a2"));
+        spool.append(TYPE_B, payload("b1"));
+        spool.append(TYPE_A, payload("a3"));
+
+        SegmentSpool.Batch first = spool.read(10);
+        assertThat(texts(first)).containsExactly("a1", "a2");
+        spool.commit(first);
+
+        SegmentSpool.Batch second = spool.read(10);
+        assertThat(texts(second)).containsExactly("b1");
+        assertThat(second.getRecords().get(0).getType()).isEqualTo(TYPE_B);
+        spool.commit(second);
+
+        assertThat(texts(spool.read(10))).containsExactly("a3");
+        spool.close();
+    }
+
+    @Test
+    void partOfABatchCanBeCommitted() throws IOException
+    {
+        SegmentSpool spool = new SegmentSpool(dir, 64);
+        for (int i = 0; i < 6; i++)
+        {
+            spool.append(TYPE_A, payload("record-" + i));
+        }
+
+        spool.commit(spool.read(10).upTo(4));
+
+        assertThat(texts(spool.read(10))).containsExactly("record-4", "record-5");
+        spool.close();
+    }
+
+    @Test
+    void committedPositionSurvivesARestart() throws IOException
+    {
+        SegmentSpool spool = new SegmentSpool(dir, 64);
+        for (int i = 0; i < 8; i++)
+        {
+            spool.append(TYPE_A, payload("record-" + i));
+        }
+        spool.force();
+        spool.commit(spool.read(5));
+        spool.close();
+
+        SegmentSpool reopened = new SegmentSpool(dir, 64);
+
+        assertThat(texts(reopened.read(10))).containsExactly("record-5", "record-6", "record-7");
+        reopened.append(TYPE_A, payload("record-8"));
+        assertThat(texts(reopened.read(10))).containsExactly("record-5", "record-6", "record-7", "record-8");
+        reopened.close();
+    }
+
+    @Test
+    void replayedSegmentsAreDeleted() throws IOException
+    {
+        SegmentSpool spool = new SegmentSpool(dir, 64);
+        for (int i = 0; i < 10; i++)
+        {
+            spool.append(TYPE_A, payload("record-" + i));
+        }
+        long segments = segmentCount();
+
+        spool.commit(spool.read(100));
+
+        assertThat(segmentCount()).isEqualTo(1).isLessThan(segments);
+        assertThat(spool.isEmpty()).isTrue();
+        spool.close();
+    }
+
+    @Test
+    void tornRecordEndsTheSegmentOnRecovery() throws IOException
+    {
+        SegmentSpool spool = new SegmentSpool(dir, 1024);
+        spool.append(TYPE_A, payload("intact"));
+        spool.append(TYPE_A, payload("torn"));
+        spool.force();
+        spool.close();
+        // a crash halfway through the second record: its payload no longer matches the checksum
+        int second = HEADER_SIZE + "intact".length();
+        corrupt(firstSegment(), second + HEADER_SIZE);
+
+        SegmentSpool reopened = new SegmentSpool(dir, 1024);
+
+        assertThat(texts(reopened.read(10))).containsExactly("intact");
+        reopened.append(TYPE_A, payload("after"));
+        assertThat(texts(reopened.read(10))).containsExactly("intact", "after");
+        reopened.close();
+    }
+
+    @Test
+    void recordWithoutItsLengthIsNotRead() throws IOException
+    {
+        SegmentSpool spool = new SegmentSpool(dir, 1024);
+        spool.append(TYPE_A, payload("intact"));
+        spool.force();
+        spool.close();
+        // the length is written last, so a record cut off before that has a zero length
+        try (RandomAccessFile file = new RandomAccessFile(firstSegment().toFile(), "rw"))
+        {
+            file.seek(HEADER_SIZE + "intact".length() + 4);
+            file.write(new byte[] { 1, 2, 3, 4, TYPE_A, 'x', 'y' });
+        }
+
+        SegmentSpool reopened = new SegmentSpool(dir, 1024);
+
+        assertThat(texts(reopened.read(10))).containsExactly("intact");
+        reopened.close();
+    }
+
+    @Test
+    void rejectsRecordsLargerThanASegment() throws IOException
+    {
+        SegmentSpool spool = new SegmentSpool(dir, 32);
+
+        assertThatThrownBy(() -> spool.append(TYPE_A, new byte[32])).isInstanceOf(IOException.class);
+        spool.close();
+    }
+
+    private static byte[] payload(String text)
+    {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> texts(SegmentSpool.Batch batch)
+    {
+        List<String> texts = new ArrayList<>();
+        for (SegmentSpool.Record record : batch.getRecords())
+        {
+            texts.add(new String(record.getPayload(), StandardCharsets.UTF_8));
+        }
+        return texts;
+    }
+
+    private long segmentCount() throws IOException
+    {
+        try (Stream<Path> files = Files.list(dir))
+        {
+            return files.filter(file -> file.getFileName().toString().endsWith(".seg")).count();
+        }
+    }
+
+    private Path firstSegment() throws IOException
+    {
+        try (Stream<Path> files = Files.list(dir))
+        {
+            return files.filter(file -> file.getFileName().toString().endsWith(".seg")).sorted().findFirst().orElseThrow();
+        }
+    }
+
+    private static void corrupt(Path segment, int offset) throws IOException
+    {
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw"))
+        {
+            file.seek(offset);
+            int value = file.read();
+            file.seek(offset);
+            file.write(value ^ 0xFF);
+        }
+    }
+}
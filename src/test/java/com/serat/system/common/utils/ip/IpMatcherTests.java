@@ -0,0 +1,200 @@
+package com.serat.system.common.utils.ip;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.StringJoiner;
+import org.junit.jupiter.api.Test;
+
+class IpMatcherTests
+{
+    @Test
+    void singleAddressesMatchOnlyThemselves()
+    {
+        IpMatcher matcher = IpMatcher.compile(" 10.0.0.1 ; 2001:db8::1 ");
+
+        assertThat(matcher.matches("10.0.0.1")).isTrue();
+        assertThat(matcher.matches("10.0.0.2")).isFalse();
+        assertThat(matcher.matches("10.0.0.0")).isFalse();
+        assertThat(matcher.matches("2001:db8::1")).isTrue();
+        assertThat(matcher.matches("2001:db8:0:0:0:0:0:1")).isTrue();
+        assertThat(matcher.matches("2001:db8::2")).isFalse();
+    }
+
+    @Test
+    void cidrBlocksMatchTheirWholeRange()
+    {
+        IpMatcher matcher = IpMatcher.compile("172.16.0.0/12;fd00::/8;192.168.1.7/32");
+
+        assertThat(matcher.matches("172.16.0.0")).isTrue();
+        assertThat(matcher.matches("172.31.255.255")).isTrue();
+        assertThat(matcher.matches("172.32.0.0")).isFalse();
+        assertThat(matcher.matches("172.15.255.255")).isFalse();
+        assertThat(matcher.matches("192.168.1.7")).isTrue();
+        assertThat(matcher.matches("192.168.1.8")).isFalse();
+        assertThat(matcher.matches("fd12:3456::1")).isTrue();
+        assertThat(matcher.matches("fe80::1")).isFalse();
+    }
+
+    @Test
+    void zeroPrefixMatchesEveryAddressOfItsFamily()
+    {
+        IpMatcher v4 = IpMatcher.compile("0.0.0.0/0");
+        IpMatcher v6 = IpMatcher.compile("::/0");
+
+        assertThat(v4.matches("0.0.0.0")).isTrue();
+        assertThat(v4.matches("255.255.255.255")).isTrue();
+        assertThat(v4.matches("2001:db8::1")).isFalse();
+        assertThat(v6.matches("2001:db8::1")).isTrue();
+        assertThat(v6.matches("::")).isTrue();
+        assertThat(v6.matches("8.8.8.8")).isFalse();
+    }
+
+    @Test
+    void wildcardsCoverTheTrailingOctets()
+    {
+        IpMatcher matcher = IpMatcher.compile("192.168.*.*;10.1.2.*");
+
+        assertThat(matcher.matches("192.168.0.1")).isTrue();
+        assertThat(matcher.matches("192.168.255.255")).isTrue();
+        assertThat(matcher.matches("192.169.0.1")).isFalse();
+        assertThat(matcher.matches("10.1.2.200")).isTrue();
+        assertThat(matcher.matches("10.1.3.200")).isFalse();
+        assertThat(IpMatcher.compile("*.*.*.*").matches("8.8.8.8")).isTrue();
+    }
+
+    @Test
+    void wildcardsInTheMiddleAreIgnored()
+    {
+        IpMatcher matcher = IpMatcher.compile("10.*.1.*;192.168.*;192.168.1.300;192.168.a.*");
+
+        assertThat(matcher.matches("10.5.1.1")).isFalse();
+        assertThat(matcher.matches("10.0.0.0")).isFalse();
+        assertThat(matcher.matches("192.168.1.1")).isFalse();
+    }
+
+    @Test
+    void rangesIncludeBothEnds()
+    {
+        IpMatcher matcher = IpMatcher.compile("10.0.0.1-10.0.0.99");
+
+        assertThat(matcher.matches("10.0.0.0")).isFalse();
+        assertThat(matcher.matches("10.0.0.1")).isTrue();
+        assertThat(matcher.matches("10.0.0.64")).isTrue();
+        assertThat(matcher.matches("10.0.0.99")).isTrue();
+        assertThat(matcher.matches("10.0.0.100")).isFalse();
+    }
+
+    @Test
+    void unalignedRangeAcrossOctetsMatchesExactly()
+    {
+        IpMatcher matcher = IpMatcher.compile("192.168.1.250-192.168.2.5");
+
+        for (int last = 0; last <= 255; last++)
+        {
+            assertThat(matcher.matches("192.168.1." + last)).as("192.168.1.%d", last).isEqualTo(last >= 250);
+            assertThat(matcher.matches("192.168.2." + last)).as("192.168.2.%d", last).isEqualTo(last <= 5);
+        }
+    }
+
+    @Test
+    void reversedRangeIsTheSameRange()
+    {
+        IpMatcher matcher = IpMatcher.compile("10.0.0.99 - 10.0.0.1");
+
+        assertThat(matcher.matches("10.0.0.1")).isTrue();
+        assertThat(matcher.matches("10.0.0.99")).isTrue();
+        assertThat(matcher.matches("10.0.0.100")).isFalse();
+    }
+
+    @Test
+    void fullRangeMatchesEveryIpv4Address()
+    {
+        IpMatcher matcher = IpMatcher.compile("0.0.0.0-255.255.255.255");
+
+        assertThat(matcher.matches("0.0.0.0")).isTrue();
+        assertThat(matcher.matches("128.0.0.1")).isTrue();
+        assertThat(matcher.matches("255.255.255.255")).isTrue();
+    }
+
+    @Test
+    void ipv4MappedAddressesMatchIpv4Entries()
+    {
+        IpMatcher matcher = IpMatcher.compile("10.0.0.0/8");
+
+        assertThat(matcher.matches("::ffff:10.1.2.3")).isTrue();
+        assertThat(matcher.matches("::ffff:a01:203")).isTrue();
+        assertThat(matcher.matches("::ffff:11.1.2.3")).isFalse();
+    }
+
+    @Test
+    void zoneSuffixIsIgnored()
+    {
+        assertThat(IpMatcher.compile("fe80::1").matches("fe80::1%eth0")).isTrue();
+    }
+
+    @Test
+    void overlappingPrefixesMatchTheWiderOne()
+    {
+        for (String filter : new String[] { "10.1.0.0/16;10.0.0.0/8", "10.0.0.0/8;10.1.0.0/16", "10.1.2.3;10.0.0.0/8" })
+        {
+            IpMatcher matcher = IpMatcher.compile(filter);
+
+            assertThat(matcher.matches("10.1.2.3")).as(filter).isTrue();
+            assertThat(matcher.matches("10.200.0.1")).as(filter).isTrue();
+            assertThat(matcher.matches("11.0.0.0")).as(filter).isFalse();
+        }
+    }
+
+    @Test
+    void invalidEntriesAreIgnored()
+    {
+        IpMatcher matcher = IpMatcher.compile("abc;10.0.0.256;1.2.3.4/33;1.2.3.4/x;1.2.3;fd00::/129;1::2::3;;  ;192.168.1.1");
+
+        assertThat(matcher.matches("192.168.1.1")).isTrue();
+        assertThat(matcher.matches("1.2.3.4")).isFalse();
+        assertThat(matcher.matches("10.0.0.0")).isFalse();
+        assertThat(matcher.matches("fd00::1")).isFalse();
+    }
+
+    @Test
+    void malformedAddressesNeverMatch()
+    {
+        IpMatcher matcher = IpMatcher.compile("0.0.0.0/0;::/0");
+
+        assertThat(matcher.matches(null)).isFalse();
+        assertThat(matcher.matches("")).isFalse();
+        assertThat(matcher.matches("unknown")).isFalse();
+        assertThat(matcher.matches("1.2.3")).isFalse();
+        assertThat(matcher.matches("1.2.3.4.5")).isFalse();
+        assertThat(matcher.matches("1::2::3")).isFalse();
+    }
+
+    @Test
+    void emptyFilterMatchesNothing()
+    {
+        assertThat(IpMatcher.compile("").matches("127.0.0.1")).isFalse();
+        assertThat(IpMatcher.compile(null).matches("::1")).isFalse();
+        assertThat(IpMatcher.compile("").getSource()).isEmpty();
+    }
+
+    @Test
+    void manyEntriesAllMatch()
+    {
+        StringJoiner filter = new StringJoiner(";");
+        for (int i = 0; i < 1000; i++)
+        {
+            filter.add("172.16." + (i / 250) + "." + (i % 250));
+            filter.add("2001:db8::" + Integer.toHexString(i * 2));
+        }
+        IpMatcher matcher = IpMatcher.compile(filter.toString());
+
+        for (int i = 0; i < 1000; i++)
+        {
+            assertThat(matcher.matches("172.16." + (i / 250) + "." + (i % 250))).isTrue();
+            assertThat(matcher.matches("2001:db8::" + Integer.toHexString(i * 2))).isTrue();
+            assertThat(matcher.matches("2001:db8::" + Integer.toHexString(i * 2 + 1))).isFalse();
+        }
+        assertThat(matcher.matches("172.16.0.250")).isFalse();
+        assertThat(matcher.getSource()).isEqualTo(filter.toString());
+    }
+}
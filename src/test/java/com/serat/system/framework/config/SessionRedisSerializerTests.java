@@ -0,0 +1,180 @@
+package com.serat.system.framework.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import com.alibaba.fastjson2.JSONWriter;
+import com.serat.system.common.core.domain.dto.LoginUser;
+import com.serat.system.common.core.domain.entity.SysUser;
+
+class SessionRedisSerializerTests
+{
+    private static final int COMPRESS_THRESHOLD = 1024;
+
+    @SuppressWarnings("unchecked")
+    private final RedisSerializer<Object> fallback = mock(RedisSerializer.class);
+
+    private final SessionRedisSerializer serializer = new SessionRedisSerializer(fallback, COMPRESS_THRESHOLD);
+
+    @Test
+    void smallSessionRoundTripsUncompressed()
+    {
+        LoginUser loginUser = loginUser(2);
+
+        byte[] bytes = serializer.serialize(loginUser);
+
+        assertThat(bytes[0]).isEqualTo(SessionRedisSerializer.MAGIC_0);
+        assertThat(bytes[1]).isEqualTo(SessionRedisSerializer.MAGIC_1);
+        assertThat(bytes[2]).isEqualTo(SessionRedisSerializer.VERSION_1);
+        assertThat(bytes[3] & SessionRedisSerializer.FLAG_DEFLATE).isZero();
+        assertSameSession((LoginUser) serializer.deserialize(bytes), loginUser);
+        verifyNoInteractions(fallback);
+    }
+
+    @Test
+    void largeSessionRoundTripsDeflated()
+    {
+        LoginUser loginUser = loginUser(2000);
+
+        byte[] bytes = serializer.serialize(loginUser);
+
+        assertThat(bytes[3] & SessionRedisSerializer.FLAG_DEFLATE).isEqualTo(SessionRedisSerializer.FLAG_DEFLATE);
+        assertSameSession((LoginUser) serializer.deserialize(bytes), loginUser);
+    }
+
+    @Test
+    void zeroThresholdNeverCompresses()
+    {
+        SessionRedisSerializer uncompressed = new SessionRedisSerializer(fallback, 0);
+        LoginUser loginUser = loginUser(2000);
+
+        byte[] bytes = uncompressed.serialize(loginUser);
+
+        assertThat(bytes[3] & SessionRedisSerializer.FLAG_DEFLATE).isZero();
+        assertSameSession((LoginUser) uncompressed.deserialize(bytes), loginUser);
+    }
+
+    @Test
+    void otherValuesGoThroughTheFallback()
+    {
+        byte[] json = "\"value\"".getBytes(StandardCharsets.UTF_8);
+        when(fallback.serialize("value")).thenReturn(json);
+        when(fallback.deserialize(json)).thenReturn("value");
+
+        assertThat(serializer.serialize("value")).isSameAs(json);
+        assertThat(serializer.deserialize(json)).isEqualTo("value");
+    }
+
+    @Test
+    void legacyJsonSessionIsReadByTheFallback()
+    {
+        byte[] legacy = JSON.toJSONString(loginUser(2), JSONWriter.Feature.WriteClassName).getBytes(StandardCharsets.UTF_8);
+        when(fallback.deserialize(legacy)).thenReturn("legacy");
+
+        assertThat(serializer.deserialize(legacy)).isEqualTo("legacy");
+        verify(fallback).deserialize(legacy);
+    }
+
+    @Test
+    void legacyJsonSessionIsStillReadable()
+    {
+        SessionRedisSerializer withJson = new SessionRedisSerializer(new FastJson2JsonRedisSerializer<>(Object.class),
+                COMPRESS_THRESHOLD);
+        LoginUser loginUser = loginUser(2);
+        byte[] legacy = JSON.toJSONString(loginUser, JSONWriter.Feature.WriteClassName).getBytes(StandardCharsets.UTF_8);
+
+        Object value = withJson.deserialize(legacy);
+
+        // converted the way RedisCache converts values it reads back
+        LoginUser read = value instanceof JSONObject ? ((JSONObject) value).to(LoginUser.class) : (LoginUser) value;
+        assertSameSession(read, loginUser);
+    }
+
+    @Test
+    void bytesTooShortForASessionGoToTheFallback()
+    {
+        byte[] header = { SessionRedisSerializer.MAGIC_0, SessionRedisSerializer.MAGIC_1, SessionRedisSerializer.VERSION_1, 0 };
+
+        serializer.deserialize(header);
+
+        verify(fallback).deserialize(header);
+    }
+
+    @Test
+    void unsupportedVersionIsRejected()
+    {
+        byte[] bytes = serializer.serialize(loginUser(2));
+        bytes[2] = 2;
+
+        assertThatThrownBy(() -> serializer.deserialize(bytes)).isInstanceOf(SerializationException.class)
+                .hasMessageContaining("version");
+    }
+
+    @Test
+    void truncatedDeflatedSessionIsRejected()
+    {
+        byte[] bytes = serializer.serialize(loginUser(2000));
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 8);
+
+        assertThatThrownBy(() -> serializer.deserialize(truncated)).isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void corruptDeflatedSessionIsRejected()
+    {
+        byte[] bytes = serializer.serialize(loginUser(2000));
+        // the first bytes of the zlib stream are its header
+        bytes[4] ^= 0x5A;
+
+        assertThatThrownBy(() -> serializer.deserialize(bytes)).isInstanceOf(SerializationException.class);
+    }
+
+    private static LoginUser loginUser(int permissionWords)
+    {
+        SysUser user = new SysUser();
+        user.setUserId(7L);
+        user.setUserName("alice");
+        LoginUser loginUser = new LoginUser();
+        loginUser.setUser(user);
+        loginUser.setUserId(7L);
+        loginUser.setDeptId(103L);
+        loginUser.setToken("9b2f6c1e-token");
+        loginUser.setLoginTime(1700000000000L);
+        loginUser.setExpireTime(1700001800000L);
+        loginUser.setIpaddr("10.0.0.1");
+        loginUser.setBrowser("Chrome 120");
+        loginUser.setOs("Windows 10");
+        long[] bits = new long[permissionWords];
+        for (int i = 0; i < bits.length; i++)
+        {
+            bits[i] = i % 3 == 0 ? -1L : 1L << i;
+        }
+        loginUser.setPermissionBits(bits);
+        return loginUser;
+    }
+
+    private static void assertSameSession(LoginUser actual, LoginUser expected)
+    {
+        assertThat(actual.getUserId()).isEqualTo(expected.getUserId());
+        assertThat(actual.getDeptId()).isEqualTo(expected.getDeptId());
+        assertThat(actual.getToken()).isEqualTo(expected.getToken());
+        assertThat(actual.getLoginTime()).isEqualTo(expected.getLoginTime());
+        assertThat(actual.getExpireTime()).isEqualTo(expected.getExpireTime());
+        assertThat(actual.getIpaddr()).isEqualTo(expected.getIpaddr());
+        assertThat(actual.getBrowser()).isEqualTo(expected.getBrowser());
+        assertThat(actual.getOs()).isEqualTo(expected.getOs());
+        assertThat(actual.getPermissionBits()).containsExactly(expected.getPermissionBits());
+        assertThat(actual.getUsername()).isEqualTo("alice");
+    }
+}
@@ -0,0 +1,186 @@
+package com.serat.system.framework.manager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.serat.system.system.domain.SysLogininfor;
+import com.serat.system.system.domain.SysOperLog;
+import com.serat.system.system.service.ISysLogininforService;
+import com.serat.system.system.service.ISysOperLogService;
+
+class AuditSpoolTests
+{
+    @TempDir
+    Path dir;
+
+    private final ISysOperLogService operLogService = mock(ISysOperLogService.class);
+
+    private final ISysLogininforService logininforService = mock(ISysLogininforService.class);
+
+    private AuditSpool auditSpool;
+
+    @BeforeEach
+    void open()
+    {
+        auditSpool = new AuditSpool();
+        ReflectionTestUtils.setField(auditSpool, "enabled", true);
+        ReflectionTestUtils.setField(auditSpool, "path", dir.toString());
+        ReflectionTestUtils.setField(auditSpool, "segmentSize", 1 << 16);
+        ReflectionTestUtils.setField(auditSpool, "replayInterval", 5000L);
+        ReflectionTestUtils.setField(auditSpool, "replayBatchSize", 500);
+        ReflectionTestUtils.setField(auditSpool, "operLogService", operLogService);
+        ReflectionTestUtils.setField(auditSpool, "logininforService", logininforService);
+        ReflectionTestUtils.setField(auditSpool, "scheduledExecutorService", mock(ScheduledExecutorService.class));
+        auditSpool.init();
+    }
+
+    @AfterEach
+    void close()
+    {
+        auditSpool.shutdown();
+    }
+
+    @Test
+    void replaysEachRecordTypeOnceInItsOwnBatch()
+    {
+        auditSpool.spoolOperLogs(List.of(operLog("a"), operLog("b")));
+        auditSpool.spoolLogininfors(List.of(logininfor("alice")));
+        auditSpool.spoolOperLogs(List.of(operLog("c")));
+
+        replay();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<SysOperLog>> operLogs = ArgumentCaptor.forClass(List.class);
+        verify(operLogService, times(2)).insertOperlogBatch(operLogs.capture());
+        assertThat(operLogs.getAllValues()).extracting(this::titles).containsExactly(List.of("a", "b"), List.of("c"));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<SysLogininfor>> logininfors = ArgumentCaptor.forClass(List.class);
+        verify(logininforService).insertLogininforBatch(logininfors.capture());
+        assertThat(logininfors.getValue()).extracting(SysLogininfor::getUserName).containsExactly("alice");
+        assertThat(auditSpool.stats()).containsEntry("pendingBytes", 0L).containsEntry("replayed", 4L);
+    }
+
+    @Test
+    void unavailableDatabaseDoesNotReinsertEarlierBatches()
+    {
+        auditSpool.spoolOperLogs(List.of(operLog("a")));
+        auditSpool.spoolLogininfors(List.of(logininfor("alice")));
+        when(logininforService.insertLogininforBatch(anyList())).thenThrow(new DataAccessResourceFailureException("down"));
+
+        replay();
+
+        assertThat(auditSpool.isDatabaseAvailable()).isFalse();
+        verify(logininforService, never()).insertLogininfor(any());
+
+        doReturn(1).when(logininforService).insertLogininforBatch(anyList());
+        replay();
+
+        verify(operLogService, times(1)).insertOperlogBatch(anyList());
+        verify(logininforService, times(2)).insertLogininforBatch(anyList());
+        assertThat(auditSpool.stats()).containsEntry("pendingBytes", 0L);
+    }
+
+    @Test
+    void rejectedBatchIsRetriedRowByRow()
+    {
+        auditSpool.spoolOperLogs(List.of(operLog("a"), operLog("bad"), operLog("c")));
+        when(operLogService.insertOperlogBatch(anyList())).thenThrow(new DataIntegrityViolationException("rejected"));
+        doThrow(new DataIntegrityViolationException("rejected")).when(operLogService)
+                .insertOperlog(argThat(operLog -> "bad".equals(operLog.getTitle())));
+
+        replay();
+
+        assertThat(insertedTitles()).containsExactly("a", "bad", "c");
+        assertThat(auditSpool.stats()).containsEntry("pendingBytes", 0L).containsEntry("discarded", 1L);
+    }
+
+    @Test
+    void connectivityFailureDuringRowRetryKeepsTheRowsAlreadyInserted()
+    {
+        auditSpool.spoolOperLogs(List.of(operLog("a"), operLog("b"), operLog("c")));
+        when(operLogService.insertOperlogBatch(anyList())).thenThrow(new DataIntegrityViolationException("rejected"));
+        doThrow(new DataAccessResourceFailureException("down")).doNothing().when(operLogService)
+                .insertOperlog(argThat(operLog -> "b".equals(operLog.getTitle())));
+
+        replay();
+
+        assertThat(insertedTitles()).containsExactly("a", "b");
+        assertThat(auditSpool.isDatabaseAvailable()).isFalse();
+
+        replay();
+
+        assertThat(insertedTitles()).containsExactly("a", "b", "b", "c");
+        assertThat(auditSpool.stats()).containsEntry("pendingBytes", 0L).containsEntry("discarded", 0L);
+    }
+
+    @Test
+    void recordsStayInTheSpoolUntilReplayed()
+    {
+        when(operLogService.insertOperlogBatch(anyList())).thenThrow(new DataAccessResourceFailureException("down"));
+        auditSpool.spoolOperLogs(List.of(operLog("a")));
+
+        replay();
+        auditSpool.shutdown();
+        auditSpool.init();
+        doReturn(1).when(operLogService).insertOperlogBatch(anyList());
+        replay();
+
+        verify(operLogService, atLeastOnce()).insertOperlogBatch(anyList());
+        assertThat(auditSpool.stats()).containsEntry("pendingBytes", 0L).containsEntry("replayed", 1L);
+    }
+
+    private void replay()
+    {
+        ReflectionTestUtils.invokeMethod(auditSpool, "replay");
+    }
+
+    private List<String> insertedTitles()
+    {
+        ArgumentCaptor<SysOperLog> operLogs = ArgumentCaptor.forClass(SysOperLog.class);
+        verify(operLogService, atLeastOnce()).insertOperlog(operLogs.capture());
+        return titles(operLogs.getAllValues());
+    }
+
+    private List<String> titles(List<SysOperLog> operLogs)
+    {
+        List<String> titles = new ArrayList<>();
+        operLogs.forEach(operLog -> titles.add(operLog.getTitle()));
+        return titles;
+    }
+
+    private static SysOperLog operLog(String title)
+    {
+        SysOperLog operLog = new SysOperLog();
+        operLog.setTitle(title);
+        return operLog;
+    }
+
+    private static SysLogininfor logininfor(String userName)
+    {
+        SysLogininfor logininfor = new SysLogininfor();
+        logininfor.setUserName(userName);
+        return logininfor;
+    }
+}
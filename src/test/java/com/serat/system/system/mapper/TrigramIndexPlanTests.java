@@ -0,0 +1,146 @@
+package com.serat.system.system.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Checks on a seeded PostgreSQL that the substring filters of the user and operation log lists, written the
+ * way the mappers write them (column LIKE/ILIKE '%' || value || '%'), are planned as bitmap scans on the
+ * trigram indexes of V4. Skipped when no docker is available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class TrigramIndexPlanTests
+{
+    private static final int ROWS = 50000;
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static Connection connection;
+
+    @BeforeAll
+    static void migrateAndSeed() throws SQLException
+    {
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .load()
+                .migrate();
+        connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        try (Statement statement = connection.createStatement())
+        {
+            statement.execute("INSERT INTO sys_user (user_name, nick_name, phonenumber) "
+                    + "SELECT 'u' || left(md5(g::text), 20), 'user ' || g, lpad((g * 7919 % 100000000000)::text, 11, '0') "
+                    + "FROM generate_series(1, " + ROWS + ") g");
+            statement.execute("INSERT INTO sys_oper_log (title, oper_name, oper_ip, oper_time) "
+                    + "SELECT 'title ' || md5(g::text), 'op' || left(md5((g * 31)::text), 20), "
+                    + "'10.' || (g % 256) || '.' || (g / 256 % 256) || '.' || (g * 7 % 256), CURRENT_TIMESTAMP "
+                    + "FROM generate_series(1, " + ROWS + ") g");
+            statement.execute("ANALYZE sys_user");
+            statement.execute("ANALYZE sys_oper_log");
+        }
+    }
+
+    @AfterAll
+    static void close() throws SQLException
+    {
+        if (connection != null)
+        {
+            connection.close();
+        }
+    }
+
+    @Test
+    void userNameFilterUsesTrigramIndex() throws SQLException
+    {
+        String plan = explain("SELECT u.user_id FROM sys_user u WHERE u.del_flag = '0' "
+                + "AND u.user_name ILIKE '%' || ? || '%'", "3f9a2");
+        assertThat(plan).contains("Bitmap Index Scan on idx_sys_user_un_trgm");
+    }
+
+    @Test
+    void phonenumberFilterUsesTrigramIndex() throws SQLException
+    {
+        String plan = explain("SELECT u.user_id FROM sys_user u WHERE u.del_flag = '0' "
+                + "AND u.phonenumber LIKE '%' || ? || '%'", "48213");
+        assertThat(plan).contains("Bitmap Index Scan on idx_sys_user_pn_trgm");
+    }
+
+    @Test
+    void operLogTitleFilterUsesTrigramIndex() throws SQLException
+    {
+        String plan = explain("SELECT oper_id FROM sys_oper_log WHERE title ILIKE '%' || ? || '%'", "3f9a2");
+        assertThat(plan).containsAnyOf(bitmapScansOn("idx_sys_oper_log_title_trgm"));
+    }
+
+    @Test
+    void operLogNameFilterUsesTrigramIndex() throws SQLException
+    {
+        String plan = explain("SELECT oper_id FROM sys_oper_log WHERE oper_name ILIKE '%' || ? || '%'", "3f9a2");
+        assertThat(plan).containsAnyOf(bitmapScansOn("idx_sys_oper_log_on_trgm"));
+    }
+
+    @Test
+    void operLogIpFilterUsesTrigramIndex() throws SQLException
+    {
+        String plan = explain("SELECT oper_id FROM sys_oper_log WHERE oper_ip LIKE '%' || ? || '%'", "10.17.203");
+        assertThat(plan).containsAnyOf(bitmapScansOn("idx_sys_oper_log_ip_trgm"));
+    }
+
+    /**
+     * Plans the query with the search value bound as a parameter, as the mapper sends it
+     */
+    private static String explain(String sql, String value) throws SQLException
+    {
+        StringBuilder plan = new StringBuilder();
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql))
+        {
+            statement.setString(1, value);
+            try (ResultSet rs = statement.executeQuery())
+            {
+                while (rs.next())
+                {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+            }
+        }
+        return plan.toString();
+    }
+
+    /**
+     * An index on the partitioned parent is scanned through the index of each partition, which has its own name
+     */
+    private static String[] bitmapScansOn(String parentIndex) throws SQLException
+    {
+        List<String> scans = new ArrayList<>();
+        scans.add("Bitmap Index Scan on " + parentIndex);
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                        + "WHERE i.inhparent = ?::regclass"))
+        {
+            statement.setString(1, parentIndex);
+            try (ResultSet rs = statement.executeQuery())
+            {
+                while (rs.next())
+                {
+                    scans.add("Bitmap Index Scan on " + rs.getString(1));
+                }
+            }
+        }
+        return scans.toArray(new String[0]);
+    }
+}